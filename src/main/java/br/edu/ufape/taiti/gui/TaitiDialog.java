@@ -8,6 +8,7 @@ import br.edu.ufape.taiti.service.Task; // A classe Task pode precisar de adapta
 import br.edu.ufape.taiti.settings.TaitiSettingsState;
 import br.edu.ufape.taiti.tool.ScenarioTestInformation;
 import br.edu.ufape.taiti.tool.TaitiTool;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.DialogWrapper;
 import com.intellij.openapi.ui.ValidationInfo;
@@ -25,6 +26,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
 
 
 public class TaitiDialog extends DialogWrapper {
@@ -100,6 +102,7 @@ public class TaitiDialog extends DialogWrapper {
                         settings.getTrelloBoardUrlOrId(), // TrelloService deve extrair o ID se for URL
                         project
                 );
+                trelloService.setMaxConcurrentRequests(settings.getMaxConcurrentTrelloRequests());
                 servicesReady = true;
                 // Habilitar o botão OK se os serviços estiverem prontos e a validação inicial passar
                 if (getOKAction() != null) {
@@ -173,45 +176,48 @@ public class TaitiDialog extends DialogWrapper {
         try {
             File file = taiti.createScenariosFile(mainPanel.getScenarios());
 
-            // Usa trelloService para salvar os cenários
-            // O método em TrelloService pode ser saveTaitiScenarios, postTaitiCommentAndUploadFile, etc.
-            // Assumindo um método saveTaitiScenarios que encapsula a lógica de upload e comentário.
-            trelloService.saveTaitiScenarios(file, cardID);
-
             LoadingScreen loading = taskBarGUI.getLoading();
             if (loading != null) { // Verifica se loading não é nulo
                 taskBarGUI.changeJpanel(loading);
             }
-            taskBarGUI.refresh();
-            taiti.deleteScenariosFile();
 
-            JOptionPane.showMessageDialog(getRootPane(),
-                    "Scenarios successfully saved to Trello card ID: " + cardID,
-                    "Success",
-                    JOptionPane.INFORMATION_MESSAGE);
+            // Salva sem bloquear a EDT; os comentários e anexos antigos são removidos em paralelo
+            trelloService.saveTaitiScenariosAsync(file, cardID)
+                    .whenComplete((v, error) -> ApplicationManager.getApplication().invokeLater(() -> {
+                        taiti.deleteScenariosFile();
+                        taskBarGUI.refresh(); // Também em caso de erro: os cenários antigos podem já ter sido removidos
+                        if (error == null) {
+                            JOptionPane.showMessageDialog(getRootPane(),
+                                    "Scenarios successfully saved to Trello card ID: " + cardID,
+                                    "Success",
+                                    JOptionPane.INFORMATION_MESSAGE);
+                        } else {
+                            showSaveError(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                        }
+                    }));
+        } catch (Exception e) { // Falha ao criar o arquivo ou ao iniciar o envio
+            showSaveError(e);
+            if (taiti != null) taiti.deleteScenariosFile(); // Tenta limpar mesmo em caso de erro
+        }
+    }
 
-        } catch (TrelloService.TrelloApiException e) { // Captura a exceção específica do TrelloService
+    private void showSaveError(Throwable e) {
+        if (e instanceof TrelloService.TrelloApiException) { // Captura a exceção específica do TrelloService
             JOptionPane.showMessageDialog(getRootPane(),
-                    "Trello API communication error: " + e.getMessage() + " (Status: " + e.getStatusCode() + ")",
+                    "Trello API communication error: " + e.getMessage() + " (Status: " + ((TrelloService.TrelloApiException) e).getStatusCode() + ")",
                     "Trello API Error",
                     JOptionPane.ERROR_MESSAGE);
-            if (taiti != null) taiti.deleteScenariosFile();
-        } catch (IOException e) {
+        } else if (e instanceof IOException) {
             JOptionPane.showMessageDialog(getRootPane(),
                     "Error creating or handling scenarios file: " + e.getMessage(),
                     "File Error",
                     JOptionPane.ERROR_MESSAGE);
-            if (taiti != null) taiti.deleteScenariosFile(); // Tenta limpar mesmo em caso de erro
-        }
-        // Removido HttpException genérico se TrelloApiException for mais específico
-        // catch (HttpException e) { ... }
-        catch (Exception e) { // Captura genérica para outros erros inesperados
+        } else {
             JOptionPane.showMessageDialog(getRootPane(),
                     "An unexpected error occurred: " + e.getMessage(),
                     "Unexpected Error",
                     JOptionPane.ERROR_MESSAGE);
             e.printStackTrace(); // Logar o stack trace para depuração
-            if (taiti != null) taiti.deleteScenariosFile();
         }
     }
 }
\ No newline at end of file
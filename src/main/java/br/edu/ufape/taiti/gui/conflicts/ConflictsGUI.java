@@ -5,6 +5,7 @@ import br.edu.ufape.taiti.service.Task;
 import br.ufpe.cin.tan.conflict.ConflictAnalyzer;
 import br.ufpe.cin.tan.conflict.PlannedTask;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.ui.components.JBScrollPane;
 import com.intellij.ui.table.JBTable;
@@ -33,6 +34,8 @@ public class ConflictsGUI {
 
     private static Project project;
 
+    private static final int MAX_RESTORED_TESTI_FILES = 15; // O rótulo não tem barra de rolagem
+
     public ConflictsGUI(ToolWindow toolWindow, Project project) {
         this.project = project;
         content = new JPanel();
@@ -115,25 +118,30 @@ public class ConflictsGUI {
 
     static public void fillTable(Task task, ConflictAnalyzer conflictAnalyzer, ArrayList<Task> storysList) {
         modeloTabela.setRowCount(0);
+        if (task.getiTesk() == null) {
+            // Tarefas restauradas da última sessão ainda não têm TestI; ele é recalculado pela carga em andamento.
+            // Enquanto isso, mostra os arquivos do TestI gravados com a tarefa
+            setLabel(restoredTestILabel(task));
+            return;
+        }
         if (storysList.isEmpty()) {
             return;
         }
 
-        LoadingScreen loadingScreen = new LoadingScreen();
-        changePanel(loadingScreen);
-
         ArrayList<Task> tasksWithItesk = new ArrayList<>();
         for (Task currentTask : storysList) {
-            if (task.getiTesk() != null && currentTask.getiTesk() != null) {
+            if (currentTask.getiTesk() != null) {
                 tasksWithItesk.add(currentTask);
             }
         }
 
         if (tasksWithItesk.isEmpty()) {
-            changePanel(loadingScreen);
             return;
         }
 
+        LoadingScreen loadingScreen = new LoadingScreen();
+        changePanel(loadingScreen);
+
         // Calcular as taxas de conflito para cada tarefa
         for (Task currentTask : tasksWithItesk) {
             conflictAnalyzer.computeConflictRiskForPair(task.getiTesk(), currentTask.getiTesk());
@@ -164,7 +172,7 @@ public class ConflictsGUI {
 
             String stringConflicts = String.join(" \n", conflictsPath);
 
-            int taskId = Integer.parseInt(currentTask.getId());
+            String taskId = currentTask.getId(); // IDs do Trello não são numéricos
             String taskDescription = currentTask.getName();
             String taskUrl = currentTask.getUrl();
 
@@ -174,6 +182,24 @@ public class ConflictsGUI {
         changePanel(loadingScreen);
     }
 
+    private static String restoredTestILabel(Task task) {
+        StringBuilder label = new StringBuilder("<html>Conflict details for task \"")
+                .append(StringUtil.escapeXmlEntities(task.getName()))
+                .append("\" are available once its TestI is computed by the Trello load.");
+        if (!task.getTestIFiles().isEmpty()) {
+            label.append("<br>TestI files from the last session:");
+            int shown = 0;
+            for (String file : task.getTestIFiles()) {
+                if (shown++ == MAX_RESTORED_TESTI_FILES) {
+                    label.append("<br>... and ").append(task.getTestIFiles().size() - MAX_RESTORED_TESTI_FILES).append(" more");
+                    break;
+                }
+                label.append("<br>").append(StringUtil.escapeXmlEntities(file));
+            }
+        }
+        return label.append("</html>").toString();
+    }
+
     private void showCellContentDialog(String content) {
         JTextArea textArea = new JTextArea(content);
         textArea.setEditable(false);
@@ -0,0 +1,163 @@
+package br.edu.ufape.taiti.gui.taskbar;
+
+import br.edu.ufape.taiti.service.DaemonThreads;
+import br.edu.ufape.taiti.service.TrelloService;
+import com.intellij.ide.IdeEventQueue;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Polls the board's dateLastActivity in the background and triggers a refresh only when it changes.
+ * Bursts of changes are merged into a single refresh, and polling slows down while the IDE is
+ * unfocused or idle.
+ */
+public class BoardChangeWatcher implements Disposable {
+
+    private static final long BASE_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long MAX_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    // A change is refreshed once the board has been quiet this long, or at the latest after MAX_COALESCE_MILLIS
+    private static final long COALESCE_WINDOW_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    private static final long MAX_COALESCE_MILLIS = TimeUnit.MINUTES.toMillis(2);
+    private static final long IDLE_THRESHOLD_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final Supplier<TrelloService> trelloService;
+    private final BooleanSupplier refresh;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(DaemonThreads.named("TAITI-BoardWatcher"));
+
+    // Guarded by this; the poll only holds the lock to read and update them, never during the HTTP call,
+    // since loaded() is called on the EDT
+    private TrelloService watchedService; // Set by loaded(); other boards are not polled until their load ends
+    private long loads; // Incremented by loaded(), so a poll that overlapped a load discards its result
+    private String lastActivity;
+    private long firstPendingChangeAt; // 0 when no change is waiting for a refresh
+    private long lastChangeAt;
+    private long interval = BASE_INTERVAL_MILLIS;
+    private boolean started;
+
+    /**
+     * @param trelloService Supplies the service of the board currently shown, or null if there is none yet.
+     * @param refresh       Starts a refresh; returns false if it could not start (e.g. a load is running),
+     *                      in which case the change stays pending and is retried on the next poll.
+     */
+    public BoardChangeWatcher(Supplier<TrelloService> trelloService, BooleanSupplier refresh) {
+        this.trelloService = trelloService;
+        this.refresh = refresh;
+    }
+
+    /**
+     * Sets the baseline to the board as it was when a load started, so changes made while the lists were
+     * loading are still refreshed. Pending changes are dropped; any newer than the load are seen again on the next poll.
+     *
+     * @param service  Service of the board that was loaded.
+     * @param activity The board's dateLastActivity taken at the start of the load, or null if unknown.
+     */
+    public synchronized void loaded(TrelloService service, String activity) {
+        watchedService = service;
+        loads++;
+        lastActivity = activity;
+        firstPendingChangeAt = 0;
+    }
+
+    public synchronized void start() {
+        if (!started) {
+            started = true;
+            schedule(BASE_INTERVAL_MILLIS);
+        }
+    }
+
+    private void schedule(long delayMillis) {
+        if (!scheduler.isShutdown()) {
+            scheduler.schedule(this::poll, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void poll() {
+        long nextDelay;
+        try {
+            nextDelay = checkForChanges();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            System.err.println("Board watcher failed to check Trello activity: " + e.getMessage());
+            synchronized (this) {
+                interval = Math.min(interval * 2, MAX_INTERVAL_MILLIS);
+                nextDelay = interval;
+            }
+        }
+        schedule(nextDelay);
+    }
+
+    private long checkForChanges() throws Exception {
+        TrelloService service = trelloService.get();
+        long loadsBefore;
+        synchronized (this) {
+            if (service == null || service != watchedService) {
+                return BASE_INTERVAL_MILLIS; // Settings changed: wait for the new board's load to set the baseline
+            }
+            loadsBefore = loads;
+        }
+
+        String activity = service.getBoardLastActivity();
+
+        long now = System.currentTimeMillis();
+        boolean refreshPending;
+        synchronized (this) {
+            if (loads != loadsBefore || service != watchedService) {
+                return BASE_INTERVAL_MILLIS; // A load finished meanwhile and set a newer baseline
+            }
+            if (lastActivity == null) {
+                lastActivity = activity; // The load could not record its activity date: start from the current one
+            } else if (!Objects.equals(lastActivity, activity)) {
+                lastActivity = activity;
+                lastChangeAt = now;
+                if (firstPendingChangeAt == 0) {
+                    firstPendingChangeAt = now;
+                }
+            }
+            if (firstPendingChangeAt != 0) {
+                boolean quiet = now - lastChangeAt >= COALESCE_WINDOW_MILLIS;
+                boolean waitedTooLong = now - firstPendingChangeAt >= MAX_COALESCE_MILLIS;
+                if (!quiet && !waitedTooLong) {
+                    return COALESCE_WINDOW_MILLIS;
+                }
+            }
+            refreshPending = firstPendingChangeAt != 0;
+        }
+
+        // Started outside the lock: the refresh may end up calling loaded() on another thread
+        if (refreshPending && !refresh.getAsBoolean()) {
+            return COALESCE_WINDOW_MILLIS;
+        }
+
+        boolean away = isUserAway();
+        synchronized (this) {
+            if (refreshPending && loads == loadsBefore) {
+                firstPendingChangeAt = 0;
+            }
+            interval = away ? Math.min(interval * 2, MAX_INTERVAL_MILLIS) : BASE_INTERVAL_MILLIS;
+            return interval;
+        }
+    }
+
+    private static boolean isUserAway() {
+        Application application = ApplicationManager.getApplication();
+        if (application == null) {
+            return false;
+        }
+        return !application.isActive() || IdeEventQueue.getInstance().getIdleTime() > IDLE_THRESHOLD_MILLIS;
+    }
+
+    @Override
+    public void dispose() {
+        scheduler.shutdownNow();
+    }
+}
@@ -6,6 +6,7 @@ import br.edu.ufape.taiti.gui.conflicts.ConflictsGUI;
 import br.edu.ufape.taiti.service.TrelloService; // Changed from PivotalTracker
 import br.edu.ufape.taiti.service.Stories;      // This class will need adaptation for Trello
 import br.edu.ufape.taiti.service.Task;         // This class will need adaptation for Trello
+import br.edu.ufape.taiti.service.TaskSnapshotStore;
 import br.edu.ufape.taiti.settings.TaitiSettingsState;
 import br.ufpe.cin.tan.conflict.ConflictAnalyzer;
 import br.ufpe.cin.tan.conflict.PlannedTask; // This might relate to how Tasks are structured
@@ -17,6 +18,7 @@ import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.openapi.wm.ToolWindowManager;
 import com.intellij.ui.JBColor;
@@ -31,10 +33,18 @@ import java.awt.*;
 import java.awt.event.*;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
 
 
@@ -58,6 +68,25 @@ public class TaskBarGUI {
     private ArrayList<Task> otherPendingTasksList; // Pending = started + unstarted
 
     private final Project project;
+    // Kept between refreshes so Stories can sync incrementally; rebuilt when the settings change
+    private volatile Stories trelloStories;
+    private List<String> trelloStoriesSettings;
+    private final BoardChangeWatcher boardWatcher;
+    // Single-flight loading: a refresh requested during a load joins it and queues at most one follow-up.
+    // Reserved before a load is started and released on the EDT once its rows are applied
+    private final AtomicBoolean loadInProgress = new AtomicBoolean();
+    private boolean followUpLoadQueued;
+    // Last good lists of this project, shown on open while the live board is checked
+    private final TaskSnapshotStore snapshotStore;
+    // Tasks classified by the running load, waiting to be shown on the EDT
+    private final Queue<Task> publishedMyUnstartedTasks = new ConcurrentLinkedQueue<>();
+    private final Queue<Task> publishedOtherPendingTasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean publishScheduled = new AtomicBoolean();
+    // Provisional conflict rates are computed on a pooled thread, one computation at a time (EDT only)
+    private boolean provisionalRatesRunning;
+    private boolean provisionalRatesStale;
+    private int conflictRatesVersion; // Bumped when a load's final rates are applied; older provisional results are dropped
+    private boolean warmStartChecked;
     static public ConflictAnalyzer conflictAnalyzer; // Consider if this needs changes for Trello data
     private final LoadingScreen loading;
 
@@ -114,6 +143,13 @@ public class TaskBarGUI {
         content.setLayout(new BorderLayout());
 
         createConfigPanel(); // Initialize configPanel
+        snapshotStore = TaskSnapshotStore.forProject(project);
+
+        // Keeps the lists current without manual refreshes; started after the first successful load
+        boardWatcher = new BoardChangeWatcher(
+                () -> trelloStories != null ? trelloStories.getTrelloService() : null,
+                this::requestBackgroundRefresh);
+        Disposer.register(toolWindow.getDisposable(), boardWatcher);
 
         // Initial check for settings
         checkSettingsAndLoad();
@@ -144,35 +180,23 @@ public class TaskBarGUI {
                     return;
                 }
 
-                TrelloService trelloService = new TrelloService(trelloApiKey, trelloServerToken, trelloBoardUrlOrId, project);
-                try {
-                    int status = trelloService.checkBoardStatus(); // Assumes TrelloService has this method
+                // On open, show the saved lists right away; the live load below only applies the differences
+                boolean warmStarted = showWarmStartSnapshot(snapshotKey(settings));
 
-                    if (status == 200) {
-                        if (TaskBar == null) { // Initialize UI components only once if connection is OK
-                            initializeUIComponents(); // Initialize tables, buttons etc.
+                TrelloService trelloService = new TrelloService(trelloApiKey, trelloServerToken, trelloBoardUrlOrId, project);
+                // The status check is a network call: it runs off the EDT, so the warm-start rows stay responsive
+                ApplicationManager.getApplication().executeOnPooledThread(() -> {
+                    try {
+                        int status = trelloService.checkBoardStatus(); // Assumes TrelloService has this method
+                        ApplicationManager.getApplication().invokeLater(() -> handleBoardStatus(status, warmStarted));
+                    } catch (IOException | InterruptedException e) {
+                        if (e instanceof InterruptedException) {
+                            Thread.currentThread().interrupt();
                         }
-                        changeJpanel(loading); // Show loading screen while fetching tasks
-                        loadTasksFromTrello(); // Proceed to load tasks
-                    } else if (status == 401) { // Unauthorized for Trello
-                        messageLabel.setText("Invalid Trello API Key or Server Token. Please check your settings.");
-                        messageLabel.setForeground(JBColor.RED);
-                        changeJpanel(configPanel);
-                    } else if (status == 404) { // Board not found for Trello
-                        messageLabel.setText("Trello Board not found or access denied. Please check Board URL/ID and permissions.");
-                        messageLabel.setForeground(JBColor.RED);
-                        changeJpanel(configPanel);
-                    } else {
-                        messageLabel.setText("Failed to connect to Trello. Status: " + status + ". Check settings.");
-                        messageLabel.setForeground(JBColor.RED);
-                        changeJpanel(configPanel);
+                        ApplicationManager.getApplication().invokeLater(
+                                () -> showBoardError("Error connecting to Trello: " + e.getMessage(), warmStarted));
                     }
-                } catch (IOException | InterruptedException e) {
-                    messageLabel.setText("Error connecting to Trello: " + e.getMessage());
-                    messageLabel.setForeground(JBColor.RED);
-                    changeJpanel(configPanel);
-                    Thread.currentThread().interrupt();
-                }
+                });
             });
         }).exceptionally(ex -> {
             ApplicationManager.getApplication().invokeLater(() -> {
@@ -183,6 +207,81 @@ public class TaskBarGUI {
             return null;
         });
     }
+
+    /**
+     * Continues checkSettingsAndLoad on the EDT once the board status is known.
+     */
+    private void handleBoardStatus(int status, boolean warmStarted) {
+        if (status == 200) {
+            if (TaskBar == null) { // Initialize UI components only once if connection is OK
+                initializeUIComponents(); // Initialize tables, buttons etc.
+            }
+            if (!warmStarted) {
+                changeJpanel(loading); // Show loading screen while fetching tasks
+            }
+            loadTasksFromTrello(); // Proceed to load tasks
+        } else if (status == 401) { // Unauthorized for Trello
+            showBoardError("Invalid Trello API Key or Server Token. Please check your settings.", warmStarted);
+        } else if (status == 404) { // Board not found for Trello
+            showBoardError("Trello Board not found or access denied. Please check Board URL/ID and permissions.", warmStarted);
+        } else {
+            showBoardError("Failed to connect to Trello. Status: " + status + ". Check settings.", warmStarted);
+        }
+    }
+
+    /**
+     * Shows a failed board check. Rows restored on open stay visible, with the error above them;
+     * otherwise the settings panel is shown with the error.
+     */
+    private void showBoardError(String message, boolean warmStarted) {
+        if (warmStarted && TaskBar != null) {
+            JLabel errorLabel = new JLabel(message + " Showing the tasks from the last session.");
+            errorLabel.setForeground(JBColor.RED);
+            JPanel taskBarWithError = new JPanel(new BorderLayout());
+            taskBarWithError.setName("TaskBarWithError");
+            taskBarWithError.add(errorLabel, BorderLayout.NORTH);
+            taskBarWithError.add(TaskBar, BorderLayout.CENTER); // Moved back to content by the next changeJpanel(TaskBar)
+            changeJpanel(taskBarWithError);
+            return;
+        }
+        messageLabel.setText(message);
+        messageLabel.setForeground(JBColor.RED);
+        changeJpanel(configPanel);
+    }
+
+    /**
+     * The saved rows only match the settings they were loaded and analyzed with: the board, the repository
+     * and the analysis mode with its Ruby paths.
+     */
+    private static String snapshotKey(TaitiSettingsState settings) {
+        return String.join("|", settings.getTrelloBoardUrlOrId().trim(), settings.getGithubURL().trim(),
+                String.valueOf(settings.isLocalWorkingCopyAnalysis()),
+                settings.getRubyGemsPath().trim(), settings.getJRubyPath().trim());
+    }
+
+    /**
+     * Renders the snapshot saved by the last successful load, once per tool window.
+     *
+     * @return true if a snapshot was shown.
+     */
+    private boolean showWarmStartSnapshot(String snapshotKey) {
+        if (warmStartChecked) {
+            return false;
+        }
+        warmStartChecked = true;
+
+        TaskSnapshotStore.Snapshot snapshot = snapshotStore.load(snapshotKey);
+        if (snapshot == null) {
+            return false;
+        }
+        if (TaskBar == null || modelo1 == null || modelo2 == null) {
+            initializeUIComponents();
+        }
+        applyTaskRows(snapshot.getMyUnstartedTasks(), snapshot.getOtherPendingTasks());
+        changeJpanel(TaskBar);
+        return true;
+    }
+
     private boolean isBlank(String s) {
         return s == null || s.trim().isEmpty();
     }
@@ -416,16 +515,19 @@ public class TaskBarGUI {
                                             settings.getTrelloServerToken(),
                                             settings.getTrelloBoardUrlOrId(),
                                             project);
-                                    try {
-                                        // Assuming TrelloService has a method like deleteTaitiScenarios
-                                        // This method would delete the TAITI comment and related attachment
-                                        trelloSvc.deleteTaitiScenarios(String.valueOf(task.getId())); // task.getId() is Trello Card ID
-                                        refresh(); // Refresh the task list
-                                    } catch (IOException e1) {
-                                        e1.printStackTrace();
-                                        changeJpanel(TaskBar); // Show TaskBar again on error
-                                        JOptionPane.showMessageDialog(content, "Error removing tests: " + e1.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-                                    }
+                                    trelloSvc.setMaxConcurrentRequests(settings.getMaxConcurrentTrelloRequests());
+                                    // Deletes the TAITI comments and attachments in parallel, without blocking the EDT
+                                    trelloSvc.deleteTaitiScenariosAsync(String.valueOf(task.getId())) // task.getId() is Trello Card ID
+                                            .whenComplete((v, error) -> ApplicationManager.getApplication().invokeLater(() -> {
+                                                if (error == null) {
+                                                    refresh(); // Refresh the task list
+                                                    return;
+                                                }
+                                                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                                                cause.printStackTrace();
+                                                changeJpanel(TaskBar); // Show TaskBar again on error
+                                                JOptionPane.showMessageDialog(content, "Error removing tests: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                                            }));
                                 });
                             }).exceptionally(ex -> {
                                 ApplicationManager.getApplication().invokeLater(() -> {
@@ -460,73 +562,121 @@ public class TaskBarGUI {
 
     // Renamed from configTaskList to loadTasksFromTrello for clarity
     private void loadTasksFromTrello() {
-        TaitiSettingsState settings = TaitiSettingsState.getInstance(project);
-        // Settings should already be retrieved by checkSettingsAndLoad, but good to have them here.
-        // No need to call retrieveStoredCredentials again if checkSettingsAndLoad ensures they are loaded.
-
-        // Ensure TrelloService is initialized (it should be if we reached here)
-        TrelloService trelloSvc = new TrelloService(
-                settings.getTrelloApiKey(),
-                settings.getTrelloServerToken(),
-                settings.getTrelloBoardUrlOrId(),
-                project
-        );
-
-        // The Stories class needs to be adapted to use TrelloService
-        // and fetch cards from Trello lists, map them to Task objects.
-        Stories trelloStories = new Stories(trelloSvc, project, settings.getGithubURL());
-        trelloStories.clearLists(); // Assuming this clears internal lists in Stories object
+        if (!loadInProgress.compareAndSet(false, true)) {
+            // The running load's results are shown when it ends; the follow-up picks up later changes
+            // (e.g. tests just saved by TaitiDialog) without two loads racing on the table models
+            followUpLoadQueued = true;
+            return;
+        }
+        runReservedLoad();
+    }
+
+    /**
+     * Starts a load; the caller has already reserved loadInProgress.
+     */
+    private void runReservedLoad() {
+        Stories trelloStories;
+        String snapshotKey;
+        try {
+            TaitiSettingsState settings = TaitiSettingsState.getInstance(project);
+            // Settings should already be retrieved by checkSettingsAndLoad, but good to have them here.
+            // No need to call retrieveStoredCredentials again if checkSettingsAndLoad ensures they are loaded.
+
+            // Changing the analysis mode or the Ruby paths also starts over, so every card is analyzed again
+            List<String> currentSettings = Arrays.asList(settings.getTrelloApiKey(), settings.getTrelloServerToken(),
+                    settings.getTrelloBoardUrlOrId(), settings.getGithubURL(),
+                    String.valueOf(settings.isLocalWorkingCopyAnalysis()), settings.getRubyGemsPath(), settings.getJRubyPath(),
+                    String.valueOf(settings.getMaxConcurrentTrelloRequests()));
+            if (this.trelloStories == null || !currentSettings.equals(trelloStoriesSettings)) {
+                // Ensure TrelloService is initialized (it should be if we reached here)
+                TrelloService trelloSvc = new TrelloService(
+                        settings.getTrelloApiKey(),
+                        settings.getTrelloServerToken(),
+                        settings.getTrelloBoardUrlOrId(),
+                        project
+                );
+                trelloSvc.setMaxConcurrentRequests(settings.getMaxConcurrentTrelloRequests()); // Also sizes the hydration pool
+                this.trelloStories = new Stories(trelloSvc, project, settings.getGithubURL());
+                trelloStoriesSettings = currentSettings;
+            }
+            // Reused Stories only re-process the cards that changed since the previous load
+            trelloStories = this.trelloStories;
+            snapshotKey = snapshotKey(settings);
+        } catch (RuntimeException e) {
+            // Nothing was started, so nothing else would release the reservation
+            loadInProgress.set(false);
+            followUpLoadQueued = false;
+            System.err.println("ERROR starting the Trello load: " + e.getMessage());
+            JOptionPane.showMessageDialog(content, "Error loading Trello cards: " + e.getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
         ProgressManager.getInstance().run(new com.intellij.openapi.progress.Task.Backgroundable(project, "Loading Trello Cards", true) {
+            private volatile boolean completed;
+            private volatile Map<String, Double> finalConflictRates;
+
             @Override
             public void run(@NotNull ProgressIndicator indicator) {
                 // The startList method in Stories needs to be adapted for Trello
                 // It should fetch cards from relevant lists (e.g., "My Unstarted", "Other Pending")
-                trelloStories.startList(indicator); // This is the core Trello data fetching
+                trelloStories.startList(indicator, TaskBarGUI.this::publishTask); // This is the core Trello data fetching
+                if (!indicator.isCanceled()) {
+                    // Computed here, off the EDT; onFinished only applies the rates
+                    finalConflictRates = computeConflictRates(trelloStories.getMyUnstartedTasks(), trelloStories.getOtherPendingTasks());
+                    completed = true;
+                }
             }
 
             @Override
             public void onFinished() {
                 ApplicationManager.getApplication().invokeLater(() -> {
-                    // Ensure UI components are initialized before updating
-                    ensureUIComponentsInitialized();
-                    limparTaskListsInModels(); // Clear JTable models and internal lists
-
-                    // The following logic assumes trelloStories.getMyUnstartedStories() and
-                    // trelloStories.getOtherPendingStories() return Task objects populated from Trello.
-                    // Conflict analysis logic might need review based on Trello data structure.
-                    ArrayList<PlannedTask> othersPlannedTaskArrayList = new ArrayList<>();
-                    for (Task othersTask : trelloStories.getOtherPendingTasks()) {
-                        // Assuming Task has getiTesk() or similar for conflict analysis
-                        if (othersTask.getiTesk() != null) {
-                            othersPlannedTaskArrayList.add(othersTask.getiTesk());
-                        }
-                    }
-                    for (Task myUnstartedTask : trelloStories.getMyUnstartedTasks()) {
-                        if (myUnstartedTask.getiTesk() != null) {
-                            double conflictRate = conflictAnalyzer.meanRelativeConflictRiskForTasks(myUnstartedTask.getiTesk(), othersPlannedTaskArrayList);
-                            double formattedConflictRate = Math.round(conflictRate * 100.0);
-                            myUnstartedTask.setConflictRate(formattedConflictRate);
-                        } else {
-                            myUnstartedTask.setConflictRate(0.0); // Default if no iTesk
+                    try {
+                        // Ensure UI components are initialized before updating
+                        ensureUIComponentsInitialized();
+                        // Rows published while loading stay as they are if the load was cancelled or failed
+                        flushPublishedTasks();
+
+                        if (completed) {
+                            // The following logic assumes trelloStories.getMyUnstartedStories() and
+                            // trelloStories.getOtherPendingStories() return Task objects populated from Trello.
+                            conflictRatesVersion++;
+                            for (Task task : trelloStories.getMyUnstartedTasks()) {
+                                task.setConflictRate(finalConflictRates.getOrDefault(task.getId(), 0.0)); // 0 if no iTesk
+                            }
+
+                            // Combine "My Unstarted" and "No Scenario" tasks if that's the desired logic
+                            List<Task> myCombinedUnstartedTasks = new ArrayList<>(trelloStories.getMyUnstartedTasks());
+                            // myCombinedUnstartedTasks.addAll(trelloStories.getNoScenarioTasks()); // If getNoScenarioTasks is still relevant
+
+                            // Only the rows that differ from what is shown (e.g. the warm-start snapshot) are touched
+                            applyTaskRows(myCombinedUnstartedTasks, trelloStories.getOtherPendingTasks());
+
+                            List<Task> myUnstartedSnapshot = new ArrayList<>(myUnstartedTasksList);
+                            List<Task> otherPendingSnapshot = new ArrayList<>(otherPendingTasksList);
+                            ApplicationManager.getApplication().executeOnPooledThread(
+                                    () -> snapshotStore.save(snapshotKey, myUnstartedSnapshot, otherPendingSnapshot));
                         }
-                    }
-
-                    // Combine "My Unstarted" and "No Scenario" tasks if that's the desired logic
-                    List<Task> myCombinedUnstartedTasks = new ArrayList<>(trelloStories.getMyUnstartedTasks());
-                    // myCombinedUnstartedTasks.addAll(trelloStories.getNoScenarioTasks()); // If getNoScenarioTasks is still relevant
 
-                    updateMyUnstartedTasksListInModel(myCombinedUnstartedTasks, myUnstartedTasksList, modelo1);
-                    updateOtherPendingTasksListInModel(trelloStories.getOtherPendingTasks(), otherPendingTasksList, modelo2);
-
-                    changeJpanel(TaskBar); // Show the main task bar UI
+                        changeJpanel(TaskBar); // Show the main task bar UI
+
+                        // Refresh JTable views
+                        unstartedTable.revalidate();
+                        unstartedTable.repaint();
+                        startedTable.revalidate();
+                        startedTable.repaint();
+                    } finally {
+                        // Released only now, so a background refresh cannot start while these rows are applied.
+                        // The watcher compares against the board as it was when this load started
+                        boardWatcher.loaded(trelloStories.getTrelloService(), trelloStories.getSyncedBoardActivity());
+                        loadInProgress.set(false);
+                        boardWatcher.start();
+                    }
 
-                    // Refresh JTable views - safe calls with null checks
-                    safeFireTableDataChanged();
-                    unstartedTable.revalidate();
-                    unstartedTable.repaint();
-                    startedTable.revalidate();
-                    startedTable.repaint();
+                    if (followUpLoadQueued) {
+                        followUpLoadQueued = false;
+                        loadTasksFromTrello();
+                    }
                 });
             }
 
@@ -534,9 +684,9 @@ public class TaskBarGUI {
             public void onCancel() {
                 super.onCancel();
                 ApplicationManager.getApplication().invokeLater(() -> {
-                    limparTaskListsInModels();
-                    changeJpanel(TaskBar); // Show TaskBar even on cancel, maybe with a message
-                    JOptionPane.showMessageDialog(content, "Trello card loading cancelled by user.", "Cancelled", JOptionPane.INFORMATION_MESSAGE);
+                    // The cards loaded so far stay in the tables
+                    changeJpanel(TaskBar);
+                    JOptionPane.showMessageDialog(content, "Trello card loading cancelled by user. Showing the cards loaded so far.", "Cancelled", JOptionPane.INFORMATION_MESSAGE);
                 });
             }
         });
@@ -590,30 +740,204 @@ public class TaskBarGUI {
         checkSettingsAndLoad(); // This will re-validate settings and then call loadTasksFromTrello if OK
     }
 
-    // Renamed and adapted for Task objects
-    private void updateMyUnstartedTasksListInModel(List<Task> tasks, ArrayList<Task> internalList, DefaultTableModel model) {
-        internalList.clear(); // Clear before adding new ones
-        for (Task task : tasks) {
-            internalList.add(task);
-            String taskName = truncateTaskName(task.getName()); // Assuming Task has getName()
-            String conflictRateStr;
+    /**
+     * Called by the board watcher when the board changed. Reloads the lists without the loading screen;
+     * the reused Stories instance only re-processes the cards that changed.
+     *
+     * @return false if a load is already running, so the watcher keeps the change pending.
+     */
+    private boolean requestBackgroundRefresh() {
+        if (trelloStories == null || TaskBar == null || !loadInProgress.compareAndSet(false, true)) {
+            return false;
+        }
+        ApplicationManager.getApplication().invokeLater(this::runReservedLoad);
+        return true;
+    }
+
+    /**
+     * Called from the loading threads for each classified task. Tasks are queued and shown in batches on the EDT,
+     * so the tables fill in while the rest of the board is still loading.
+     */
+    private void publishTask(Task task, boolean myUnstarted) {
+        (myUnstarted ? publishedMyUnstartedTasks : publishedOtherPendingTasks).add(task);
+        if (publishScheduled.compareAndSet(false, true)) {
+            ApplicationManager.getApplication().invokeLater(this::flushPublishedTasks);
+        }
+    }
+
+    private void flushPublishedTasks() {
+        publishScheduled.set(false);
+        if (publishedMyUnstartedTasks.isEmpty() && publishedOtherPendingTasks.isEmpty()) {
+            return;
+        }
+        ensureUIComponentsInitialized();
+
+        Task task;
+        while ((task = publishedOtherPendingTasks.poll()) != null) {
+            removeTaskRow(myUnstartedTasksList, modelo1, task.getId());
+            putTaskRow(otherPendingTasksList, modelo2, task, new Object[]{truncateTaskName(task.getName())});
+        }
+        while ((task = publishedMyUnstartedTasks.poll()) != null) {
+            removeTaskRow(otherPendingTasksList, modelo2, task.getId());
+            putTaskRow(myUnstartedTasksList, modelo1, task, myUnstartedTaskRow(task));
+        }
+
+        // Provisional rates against the pending tasks known so far; the final ones are computed when the load completes
+        if (otherPendingTasksList.stream().anyMatch(pending -> pending.getiTesk() != null)) {
+            scheduleProvisionalConflictRates();
+        }
+
+        changeJpanel(TaskBar); // Leave the loading screen as soon as there is something to show
+    }
+
+    /**
+     * Computes the conflict rates of the rows shown so far on a pooled thread and applies them on the EDT.
+     * Requests made while a computation runs are merged into a single follow-up computation.
+     */
+    private void scheduleProvisionalConflictRates() {
+        if (provisionalRatesRunning) {
+            provisionalRatesStale = true;
+            return;
+        }
+        provisionalRatesRunning = true;
+        List<Task> myUnstartedTasks = new ArrayList<>(myUnstartedTasksList);
+        List<Task> otherPendingTasks = new ArrayList<>(otherPendingTasksList);
+        int version = conflictRatesVersion;
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            Map<String, Double> rates = null;
+            try {
+                rates = computeConflictRates(myUnstartedTasks, otherPendingTasks);
+            } finally {
+                Map<String, Double> computedRates = rates;
+                ApplicationManager.getApplication().invokeLater(() -> provisionalConflictRatesComputed(computedRates, version));
+            }
+        });
+    }
+
+    private void provisionalConflictRatesComputed(Map<String, Double> rates, int version) {
+        provisionalRatesRunning = false;
+        if (rates != null && version == conflictRatesVersion) {
+            // Restored warm-start tasks have no PlannedTask yet and keep their saved rate
+            for (int row = 0; row < myUnstartedTasksList.size(); row++) {
+                Task task = myUnstartedTasksList.get(row);
+                Double rate = rates.get(task.getId());
+                if (rate != null) {
+                    task.setConflictRate(rate);
+                    setRow(modelo1, row, myUnstartedTaskRow(task));
+                }
+            }
+        }
+        if (provisionalRatesStale) {
+            provisionalRatesStale = false;
+            if (loadInProgress.get()) {
+                scheduleProvisionalConflictRates();
+            }
+        }
+    }
 
-            if (task.hasScenarios()) { // Assuming Task has hasScenarios()
-                conflictRateStr = task.getConflictRate() > 0 ? task.getConflictRate() + "%" : "0%";
+    /**
+     * Replaces the row of the task with the same card ID, or appends a new row.
+     */
+    private void putTaskRow(ArrayList<Task> internalList, DefaultTableModel model, Task task, Object[] values) {
+        for (int row = 0; row < internalList.size(); row++) {
+            if (internalList.get(row).getId().equals(task.getId())) {
+                internalList.set(row, task);
+                setRow(model, row, values);
+                return;
+            }
+        }
+        internalList.add(task);
+        model.addRow(values);
+    }
+
+    private void removeTaskRow(ArrayList<Task> internalList, DefaultTableModel model, String taskId) {
+        for (int row = internalList.size() - 1; row >= 0; row--) {
+            if (internalList.get(row).getId().equals(taskId)) {
+                internalList.remove(row);
+                model.removeRow(row);
+            }
+        }
+    }
+
+    /**
+     * Runs off the EDT. Uses its own ConflictAnalyzer, since the shared one keeps the result of its last call.
+     *
+     * @return Conflict rate by card ID, for the tasks that have a PlannedTask.
+     */
+    private static Map<String, Double> computeConflictRates(List<Task> myUnstartedTasks, List<Task> otherPendingTasks) {
+        // Conflict analysis logic might need review based on Trello data structure.
+        ConflictAnalyzer conflictAnalyzer = new ConflictAnalyzer();
+        Map<String, Double> conflictRates = new HashMap<>();
+        ArrayList<PlannedTask> othersPlannedTaskArrayList = new ArrayList<>();
+        for (Task othersTask : otherPendingTasks) {
+            // Assuming Task has getiTesk() or similar for conflict analysis
+            if (othersTask.getiTesk() != null) {
+                othersPlannedTaskArrayList.add(othersTask.getiTesk());
+            }
+        }
+        for (Task myUnstartedTask : myUnstartedTasks) {
+            if (myUnstartedTask.getiTesk() != null) {
+                double conflictRate = conflictAnalyzer.meanRelativeConflictRiskForTasks(myUnstartedTask.getiTesk(), othersPlannedTaskArrayList);
+                double formattedConflictRate = Math.round(conflictRate * 100.0);
+                conflictRates.put(myUnstartedTask.getId(), formattedConflictRate);
+            }
+        }
+        return conflictRates;
+    }
+
+    /**
+     * Shows the given tasks in both tables, changing only the cells and rows that differ from the current ones.
+     */
+    private void applyTaskRows(List<Task> myUnstartedTasks, List<Task> otherPendingTasks) {
+        List<Object[]> unstartedRows = new ArrayList<>();
+        for (Task task : myUnstartedTasks) {
+            unstartedRows.add(myUnstartedTaskRow(task));
+        }
+        List<Object[]> pendingRows = new ArrayList<>();
+        for (Task task : otherPendingTasks) {
+            pendingRows.add(new Object[]{truncateTaskName(task.getName())});
+        }
+
+        myUnstartedTasksList.clear();
+        myUnstartedTasksList.addAll(myUnstartedTasks);
+        otherPendingTasksList.clear();
+        otherPendingTasksList.addAll(otherPendingTasks);
+
+        applyRows(modelo1, unstartedRows);
+        applyRows(modelo2, pendingRows);
+    }
+
+    private Object[] myUnstartedTaskRow(Task task) {
+        String taskName = truncateTaskName(task.getName()); // Assuming Task has getName()
+        String conflictRateStr;
+
+        if (task.hasScenarios()) { // Assuming Task has hasScenarios()
+            conflictRateStr = task.getConflictRate() > 0 ? task.getConflictRate() + "%" : "0%";
+        } else {
+            conflictRateStr = "Add tests";
+        }
+        return new Object[]{taskName, conflictRateStr};
+    }
+
+    private void applyRows(DefaultTableModel model, List<Object[]> rows) {
+        for (int row = 0; row < rows.size(); row++) {
+            Object[] values = rows.get(row);
+            if (row >= model.getRowCount()) {
+                model.addRow(values);
             } else {
-                conflictRateStr = "Add tests";
+                setRow(model, row, values);
             }
-            model.addRow(new Object[]{taskName, conflictRateStr});
+        }
+        for (int row = model.getRowCount() - 1; row >= rows.size(); row--) {
+            model.removeRow(row);
         }
     }
 
-    // Renamed and adapted for Task objects
-    private void updateOtherPendingTasksListInModel(List<Task> tasks, ArrayList<Task> internalList, DefaultTableModel model) {
-        internalList.clear(); // Clear before adding new ones
-        for (Task task : tasks) {
-            internalList.add(task);
-            String taskName = truncateTaskName(task.getName());
-            model.addRow(new Object[]{taskName});
+    private void setRow(DefaultTableModel model, int row, Object[] values) {
+        for (int column = 0; column < values.length; column++) {
+            if (!Objects.equals(model.getValueAt(row, column), values[column])) {
+                model.setValueAt(values[column], row, column);
+            }
         }
     }
 
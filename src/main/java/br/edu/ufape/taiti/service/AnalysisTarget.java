@@ -0,0 +1,182 @@
+package br.edu.ufape.taiti.service;
+
+import br.edu.ufape.taiti.settings.TaitiSettingsState;
+import br.ufpe.cin.tan.analysis.task.TodoTask;
+import br.ufpe.cin.tan.conflict.PlannedTask;
+import br.ufpe.cin.tan.exception.CloningRepositoryException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import java.io.Serializable;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Código analisado no cálculo do TestI: um clone do repositório do GitHub configurado ou a cópia de trabalho
+ * do projeto aberto na IDE. A cópia local não precisa de rede nem de clone.
+ */
+public abstract class AnalysisTarget {
+
+    private static final String LANGUAGE = "ruby";
+
+    /**
+     * Escolhe o alvo conforme as configurações do projeto.
+     *
+     * @param githubURL URL do repositório usada no modo remoto.
+     */
+    public static AnalysisTarget forProject(Project project, String githubURL) {
+        TaitiSettingsState settings = TaitiSettingsState.getInstance(project);
+        if (settings.isLocalWorkingCopyAnalysis()) {
+            String projectPath = localProjectPath(project);
+            if (projectPath != null) {
+                return new LocalWorkingCopy(projectPath, settings.getRubyGemsPath(), settings.getJRubyPath());
+            }
+            System.err.println("Aviso: diretório do projeto não encontrado; analisando o repositório remoto.");
+        }
+        return new RemoteRepository(githubURL, settings.getRubyGemsPath(), settings.getJRubyPath());
+    }
+
+    /**
+     * @return Caminho da raiz do projeto no VFS, ou null se o projeto não tiver diretório.
+     */
+    public static String localProjectPath(Project project) {
+        VirtualFile projectDir = ProjectUtil.guessProjectDir(project);
+        return projectDir != null && projectDir.isInLocalFileSystem() ? projectDir.getPath() : null;
+    }
+
+    /**
+     * Converte o ID de um cartão no ID numérico esperado por TodoTask, que só o usa para identificar a tarefa.
+     * IDs do Trello são hexadecimais de 24 caracteres; IDs numéricos (ex: do Pivotal Tracker) são mantidos.
+     *
+     * @return O próprio ID se for um int, senão um valor estável e não negativo derivado dele.
+     */
+    public static int taskIdFor(String cardId) {
+        try {
+            return Integer.parseInt(cardId);
+        } catch (NumberFormatException e) {
+            return cardId.hashCode() & Integer.MAX_VALUE; // String.hashCode é o mesmo em qualquer JVM
+        }
+    }
+
+    /**
+     * @return Identifica o código analisado (URL ou caminho), usado nas chaves de cache.
+     */
+    public abstract String getKey();
+
+    /**
+     * @return Revisão atual do código analisado, ou null se não puder ser determinada.
+     */
+    public abstract String resolveRevision();
+
+    public abstract TodoTask createTodoTask(int taskId, ArrayList<LinkedHashMap<String, Serializable>> scenarios) throws CloningRepositoryException;
+
+    /**
+     * Calcula o TestI de um cartão. Pode ser chamado por várias threads ao mesmo tempo.
+     *
+     * @param revision Revisão esperada do código analisado, ou null se desconhecida.
+     */
+    public PlannedTask analyze(String revision, int taskId, ArrayList<LinkedHashMap<String, Serializable>> scenarios) throws CloningRepositoryException {
+        return createTodoTask(taskId, scenarios).generateTaskForConflictAnalysis();
+    }
+
+    /**
+     * Repositório do GitHub configurado. Com os caminhos do Ruby configurados, é analisado no clone compartilhado
+     * do {@link RepositoryCache}; sem eles, a biblioteca de análise prepara o próprio clone.
+     */
+    public static class RemoteRepository extends AnalysisTarget {
+        // A biblioteca clona e faz checkout num diretório de trabalho compartilhado: uma análise por vez, por repositório
+        private static final Map<String, Object> LIBRARY_CLONE_LOCKS = new ConcurrentHashMap<>();
+
+        private final String githubURL;
+        private final String gemsPath;
+        private final String frameworkPath;
+
+        /**
+         * @param gemsPath      Diretório das gems Ruby usadas pela análise, ou vazio para a biblioteca clonar o repositório.
+         * @param frameworkPath Diretório de instalação do JRuby, ou vazio para a biblioteca clonar o repositório.
+         */
+        public RemoteRepository(String githubURL, String gemsPath, String frameworkPath) {
+            this.githubURL = githubURL;
+            this.gemsPath = gemsPath;
+            this.frameworkPath = frameworkPath;
+        }
+
+        @Override
+        public String getKey() {
+            return githubURL;
+        }
+
+        @Override
+        public String resolveRevision() {
+            return RepositoryRevision.remoteHead(githubURL);
+        }
+
+        @Override
+        public TodoTask createTodoTask(int taskId, ArrayList<LinkedHashMap<String, Serializable>> scenarios) throws CloningRepositoryException {
+            return new TodoTask(githubURL, taskId, scenarios);
+        }
+
+        @Override
+        public PlannedTask analyze(String revision, int taskId, ArrayList<LinkedHashMap<String, Serializable>> scenarios) throws CloningRepositoryException {
+            if (usesRepositoryCache()) {
+                try (RepositoryCache.Checkout checkout = RepositoryCache.getInstance().checkout(githubURL, revision)) {
+                    if (checkout != null) {
+                        return new TodoTask(LANGUAGE, gemsPath, frameworkPath, checkout.getPath().toString(), taskId, scenarios)
+                                .generateTaskForConflictAnalysis();
+                    }
+                }
+                System.err.println("Aviso: clone compartilhado de " + githubURL + " indisponível; a biblioteca de análise vai clonar o repositório.");
+            }
+            synchronized (LIBRARY_CLONE_LOCKS.computeIfAbsent(githubURL, k -> new Object())) {
+                return super.analyze(revision, taskId, scenarios);
+            }
+        }
+
+        private boolean usesRepositoryCache() {
+            return !gemsPath.trim().isEmpty() && !frameworkPath.trim().isEmpty();
+        }
+    }
+
+    /**
+     * Cópia de trabalho do projeto aberto, analisada no lugar, sem clone.
+     */
+    public static class LocalWorkingCopy extends AnalysisTarget {
+        private final String projectPath;
+        private final String gemsPath;
+        private final String frameworkPath;
+
+        /**
+         * @param projectPath   Raiz da cópia de trabalho.
+         * @param gemsPath      Diretório das gems Ruby usadas pela análise (parser, ast, activesupport-inflector).
+         * @param frameworkPath Diretório de instalação do JRuby.
+         */
+        public LocalWorkingCopy(String projectPath, String gemsPath, String frameworkPath) {
+            this.projectPath = projectPath;
+            this.gemsPath = gemsPath;
+            this.frameworkPath = frameworkPath;
+        }
+
+        @Override
+        public String getKey() {
+            return "file:" + projectPath;
+        }
+
+        @Override
+        public String resolveRevision() {
+            return RepositoryRevision.localHead(Paths.get(projectPath));
+        }
+
+        @Override
+        public TodoTask createTodoTask(int taskId, ArrayList<LinkedHashMap<String, Serializable>> scenarios) throws CloningRepositoryException {
+            return new TodoTask(LANGUAGE, gemsPath, frameworkPath, projectPath, taskId, scenarios);
+        }
+
+        public String getProjectPath() {
+            return projectPath;
+        }
+    }
+}
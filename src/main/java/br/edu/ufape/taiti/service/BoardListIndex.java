@@ -0,0 +1,79 @@
+package br.edu.ufape.taiti.service;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice das listas abertas de um quadro do Trello: mapeia o ID de cada lista para seu papel, definido pelo nome.
+ * Com ele, a classificação dos cartões não precisa de nenhuma requisição por cartão.
+ */
+public class BoardListIndex {
+
+    /**
+     * Papel de uma lista na classificação dos cartões.
+     */
+    public enum Role {
+        UNSTARTED, // Tarefas planejadas, ainda não iniciadas
+        PENDING,   // Tarefas em andamento
+        OTHER      // Demais listas (ex: Done), ignoradas na classificação
+    }
+
+    // Nomes das listas do Trello que definem o papel; devem corresponder aos nomes usados no quadro
+    private static final List<String> UNSTARTED_LIST_NAMES = Arrays.asList("TODO", "Backlog", "Unstarted");
+    private static final List<String> PENDING_LIST_NAMES = Arrays.asList("DOING");
+
+    // Na ordem em que as listas aparecem no quadro
+    private final Map<String, Role> rolesById = new LinkedHashMap<>();
+
+    /**
+     * @param lists Listas do quadro, com os campos id e name.
+     */
+    public BoardListIndex(JSONArray lists) {
+        for (int i = 0; i < lists.length(); i++) {
+            JSONObject list = lists.optJSONObject(i);
+            if (list == null || !list.has("id")) {
+                System.err.println("Aviso: lista do quadro sem ID ignorada: " + lists.opt(i));
+                continue;
+            }
+            String id = list.getString("id");
+            String name = list.optString("name", "");
+            rolesById.put(id, roleForName(name));
+        }
+    }
+
+    /**
+     * @return Papel da lista; listas fora do índice têm papel {@link Role#OTHER}.
+     */
+    public Role getRole(String listId) {
+        return listId != null ? rolesById.getOrDefault(listId, Role.OTHER) : Role.OTHER;
+    }
+
+    /**
+     * @return IDs das listas com o papel informado, na ordem do quadro.
+     */
+    public List<String> getListIds(Role role) {
+        List<String> listIds = new ArrayList<>();
+        for (Map.Entry<String, Role> entry : rolesById.entrySet()) {
+            if (entry.getValue() == role) {
+                listIds.add(entry.getKey());
+            }
+        }
+        return listIds;
+    }
+
+    private static Role roleForName(String name) {
+        if (UNSTARTED_LIST_NAMES.contains(name)) {
+            return Role.UNSTARTED;
+        }
+        if (PENDING_LIST_NAMES.contains(name)) {
+            return Role.PENDING;
+        }
+        return Role.OTHER;
+    }
+}
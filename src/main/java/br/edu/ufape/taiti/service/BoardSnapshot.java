@@ -0,0 +1,81 @@
+package br.edu.ufape.taiti.service;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Retrato em memória de um quadro do Trello, montado a partir de uma única chamada
+ * GET /boards/{id} com recursos aninhados (listas, membros e comentários). Os cartões são lidos à parte.
+ */
+public class BoardSnapshot {
+
+    private final MemberDirectory memberDirectory;
+    private final BoardListIndex listIndex;
+    private final Map<String, JSONArray> commentsByCard = new HashMap<>();
+    private final boolean commentFeedComplete;
+
+    /**
+     * @param boardJson Resposta de GET /boards/{id} com lists, members e actions aninhados.
+     * @param actionsLimit Limite usado em actions_limit; se a resposta o atingir, comentários antigos podem ter ficado de fora.
+     */
+    public BoardSnapshot(JSONObject boardJson, int actionsLimit) {
+        JSONArray members = boardJson.optJSONArray("members");
+        this.memberDirectory = new MemberDirectory(members != null ? members : new JSONArray());
+
+        JSONArray lists = boardJson.optJSONArray("lists");
+        this.listIndex = new BoardListIndex(lists != null ? lists : new JSONArray());
+
+        JSONArray actions = boardJson.optJSONArray("actions");
+        int actionCount = actions != null ? actions.length() : 0;
+        for (int i = 0; i < actionCount; i++) {
+            JSONObject action = actions.getJSONObject(i);
+            JSONObject data = action.optJSONObject("data");
+            JSONObject card = data != null ? data.optJSONObject("card") : null;
+            if (card != null && card.has("id")) {
+                commentsByCard.computeIfAbsent(card.getString("id"), k -> new JSONArray()).put(action);
+            }
+        }
+        this.commentFeedComplete = actionCount < actionsLimit;
+    }
+
+    public MemberDirectory getMemberDirectory() {
+        return memberDirectory;
+    }
+
+    public BoardListIndex getListIndex() {
+        return listIndex;
+    }
+
+    /**
+     * Junta os anexos do cartão aos comentários contidos no retrato.
+     * Se o feed de comentários foi truncado pelo limite de ações, só são confiáveis os cartões cujo
+     * comentário TAITI aparece no retrato; para os demais retorna null e o chamador deve buscá-los à parte.
+     *
+     * @param cardJson Cartão lido com o campo "attachments".
+     * @return Detalhes do cartão, ou null se não puderem ser obtidos do retrato.
+     */
+    public TrelloService.CardDetails getCardDetails(JSONObject cardJson) {
+        JSONArray attachments = cardJson.optJSONArray("attachments");
+        if (attachments == null) {
+            return null;
+        }
+        JSONArray comments = commentsByCard.getOrDefault(cardJson.getString("id"), new JSONArray());
+        if (!commentFeedComplete && !containsTaitiComment(comments)) {
+            return null;
+        }
+        return new TrelloService.CardDetails(comments, attachments);
+    }
+
+    private boolean containsTaitiComment(JSONArray comments) {
+        for (int i = 0; i < comments.length(); i++) {
+            JSONObject data = comments.getJSONObject(i).optJSONObject("data");
+            if (data != null && TrelloService.TAITI_MSG.equals(data.optString("text", null))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
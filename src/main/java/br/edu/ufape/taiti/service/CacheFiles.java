@@ -0,0 +1,102 @@
+package br.edu.ufape.taiti.service;
+
+import com.intellij.openapi.application.PathManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Operações comuns aos caches em disco do plugin: diretório de cada cache, registro de uso
+ * e remoção dos arquivos antigos ou menos usados.
+ */
+public final class CacheFiles {
+
+    private CacheFiles() {
+    }
+
+    /**
+     * @param name Nome do cache (ex: "attachments").
+     * @return O diretório do cache no diretório de sistema da IDE, ou no diretório temporário fora da IDE.
+     */
+    public static Path systemDirectory(String name) {
+        try {
+            return Paths.get(PathManager.getSystemPath(), "taiti", name);
+        } catch (RuntimeException e) {
+            return Paths.get(System.getProperty("java.io.tmpdir"), "taiti-" + name);
+        }
+    }
+
+    /**
+     * Registra o uso de um arquivo: a data de modificação marca o último uso, usada na remoção LRU.
+     */
+    public static void markUsed(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            System.err.println("Aviso: não foi possível registrar o uso de " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Remove do diretório os arquivos com a extensão dada que não são usados há mais de maxAgeMillis e,
+     * se o total ainda passar de maxBytes, os menos usados primeiro. Falhas são apenas registradas.
+     *
+     * @param keep Arquivo que nunca é removido (ex: o que acabou de ser gravado), ou null.
+     */
+    public static void evict(Path directory, String extension, long maxBytes, long maxAgeMillis, Path keep) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> files = new ArrayList<>();
+        long totalBytes = 0;
+        long oldest = System.currentTimeMillis() - maxAgeMillis;
+        try (Stream<Path> stream = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) stream::iterator) {
+                if (!file.toString().endsWith(extension)) {
+                    continue;
+                }
+                if (!file.equals(keep) && lastUsed(file) < oldest) {
+                    deleteQuietly(file);
+                } else {
+                    files.add(file);
+                    totalBytes += Files.size(file);
+                }
+            }
+            files.sort(Comparator.comparingLong(CacheFiles::lastUsed));
+            for (Path file : files) {
+                if (totalBytes <= maxBytes) {
+                    break;
+                }
+                if (!file.equals(keep)) {
+                    totalBytes -= Files.size(file);
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Aviso: falha ao limpar o cache em " + directory + ": " + e.getMessage());
+        }
+    }
+
+    public static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Aviso: não foi possível remover " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static long lastUsed(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package br.edu.ufape.taiti.service;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fábrica das threads de fundo do plugin. As threads são daemon, para não impedir o encerramento da IDE,
+ * e numeradas a partir de um prefixo (ex: "TAITI-HTTP-1"), para identificá-las em thread dumps.
+ */
+public final class DaemonThreads {
+
+    private DaemonThreads() {
+    }
+
+    public static ThreadFactory named(String prefix) {
+        return named(prefix, Thread.NORM_PRIORITY);
+    }
+
+    public static ThreadFactory named(String prefix, int priority) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(priority);
+            return thread;
+        };
+    }
+}
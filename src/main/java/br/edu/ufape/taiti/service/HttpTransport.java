@@ -0,0 +1,117 @@
+package br.edu.ufape.taiti.service;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Transporte HTTP único da aplicação, compartilhado por todos os serviços de rastreadores (Trello e Pivotal).
+ * Mantém os pools de conexão abertos entre requisições (keep-alive, HTTP/2) para evitar novos handshakes TLS
+ * e novos pools de threads a cada chamada. Registrado como applicationService no plugin.xml.
+ */
+public class HttpTransport implements Disposable {
+
+    private static HttpTransport standalone; // Usado fora da IDE (ex: TrelloService.main)
+
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+    private final OkHttpClient okHttpClient;
+
+    public HttpTransport() {
+        this.executor = Executors.newCachedThreadPool(DaemonThreads.named("TAITI-HTTP"));
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2) // Volta para HTTP/1.1 automaticamente se o servidor não suportar
+                .connectTimeout(Duration.ofSeconds(20))
+                .executor(executor)
+                .build();
+        this.okHttpClient = new OkHttpClient.Builder()
+                .dispatcher(new Dispatcher(executor))
+                .connectionPool(new ConnectionPool(10, 5, TimeUnit.MINUTES))
+                .connectTimeout(Duration.ofSeconds(45))
+                .writeTimeout(Duration.ofSeconds(45))
+                .readTimeout(Duration.ofSeconds(45))
+                .build(); // OkHttp já negocia gzip de forma transparente
+    }
+
+    public static HttpTransport getInstance() {
+        Application application = ApplicationManager.getApplication();
+        if (application != null) {
+            return application.getService(HttpTransport.class);
+        }
+        synchronized (HttpTransport.class) {
+            if (standalone == null) {
+                standalone = new HttpTransport();
+            }
+            return standalone;
+        }
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public OkHttpClient getOkHttpClient() {
+        return okHttpClient;
+    }
+
+    /**
+     * Threads dos clientes HTTP, também usadas pelas continuações da API assíncrona do TrelloService.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * BodyHandler de texto que descompacta respostas gzip. Usar junto com o header "Accept-Encoding: gzip",
+     * já que o HttpClient do JDK não faz a descompactação sozinho.
+     */
+    public static HttpResponse.BodyHandler<String> ofGzipAwareString() {
+        return responseInfo -> {
+            if (!isGzip(responseInfo.headers())) {
+                return HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8);
+            }
+            return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), bytes -> {
+                try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+                    return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Falha ao descompactar resposta gzip", e);
+                }
+            });
+        };
+    }
+
+    /**
+     * Envolve o corpo de uma resposta em streaming com GZIPInputStream quando necessário.
+     */
+    public static InputStream decodedBody(HttpResponse<InputStream> response) throws IOException {
+        return isGzip(response.headers()) ? new GZIPInputStream(response.body()) : response.body();
+    }
+
+    private static boolean isGzip(HttpHeaders headers) {
+        return headers.firstValue("Content-Encoding").map("gzip"::equalsIgnoreCase).orElse(false);
+    }
+
+    @Override
+    public void dispose() {
+        okHttpClient.connectionPool().evictAll();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,37 @@
+package br.edu.ufape.taiti.service;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Diretório dos membros de um quadro do Trello: mapeia o ID de cada membro para o nome exibido.
+ * Montado uma vez por atualização, para que os cartões resolvam seus responsáveis sem novas requisições.
+ */
+public class MemberDirectory {
+
+    private final Map<String, String> namesById = new HashMap<>();
+
+    /**
+     * @param members Membros do quadro, com os campos id, fullName e username.
+     */
+    public MemberDirectory(JSONArray members) {
+        for (int i = 0; i < members.length(); i++) {
+            JSONObject member = members.optJSONObject(i);
+            if (member == null || !member.has("id")) {
+                System.err.println("Aviso: membro do quadro sem ID ignorado: " + members.opt(i));
+                continue;
+            }
+            namesById.put(member.getString("id"), member.optString("fullName", member.optString("username", "Unknown Member")));
+        }
+    }
+
+    /**
+     * @return Nome do membro, ou null se o ID não pertence ao quadro.
+     */
+    public String getName(String memberId) {
+        return memberId != null ? namesById.get(memberId) : null;
+    }
+}
@@ -77,7 +77,7 @@ public class PivotalTracker {
             return 400;
         }
         String request = PIVOTAL_URL + API_PATH + "/projects/" + projectID;
-        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpClient httpClient = HttpTransport.getInstance().getHttpClient();
         HttpRequest httpRequest = HttpRequest.newBuilder()
                 .uri(URI.create(request))
                 .header(TOKEN_HEADER, token)
@@ -112,7 +112,7 @@ public class PivotalTracker {
                 if (fileStoryID == Integer.parseInt(storyId)) {
                     String downloadUrl = PIVOTAL_URL + taitiFile.getString("download_url");
 
-                    HttpClient httpClient = HttpClient.newHttpClient();
+                    HttpClient httpClient = HttpTransport.getInstance().getHttpClient();
                     HttpRequest downloadRequest = HttpRequest.newBuilder()
                             .uri(URI.create(downloadUrl))
                             .header(TOKEN_HEADER, token)
@@ -211,7 +211,7 @@ public class PivotalTracker {
     public JSONArray getFiles(String taskID) throws HttpException, IOException, InterruptedException {
         String request = "/projects/" + projectID + "/stories/" + taskID + "/comments/?fields=file_attachments";
 
-        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpClient httpClient = HttpTransport.getInstance().getHttpClient();
 
         HttpRequest httpRequest = HttpRequest.newBuilder()
                 .uri(URI.create(PIVOTAL_URL + API_PATH + request))
@@ -247,7 +247,7 @@ public class PivotalTracker {
     public JSONArray getComments(String taskID) throws HttpException, IOException, InterruptedException {
         String request = "/projects/" + projectID + "/stories/" + taskID + "/comments";
 
-        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpClient httpClient = HttpTransport.getInstance().getHttpClient();
 
         HttpRequest httpRequest = HttpRequest.newBuilder()
                 .uri(URI.create(PIVOTAL_URL + API_PATH + request))
@@ -269,7 +269,7 @@ public class PivotalTracker {
         String request = "/me?fields=%3Adefault";
         String pivotalUrl = PIVOTAL_URL + API_PATH + request;
 
-        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpClient httpClient = HttpTransport.getInstance().getHttpClient();
         HttpRequest httpRequest = HttpRequest.newBuilder()
                 .uri(URI.create(pivotalUrl))
                 .header(TOKEN_HEADER, token)
@@ -292,7 +292,7 @@ public class PivotalTracker {
     public List<Person> getMembers() throws HttpException, IOException, InterruptedException {
         String request = "/projects/" + projectID + "/memberships";
 
-        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpClient httpClient = HttpTransport.getInstance().getHttpClient();
 
         HttpRequest httpRequest = HttpRequest.newBuilder()
                 .uri(URI.create(PIVOTAL_URL + API_PATH + request))
@@ -322,7 +322,7 @@ public class PivotalTracker {
     public JSONArray getPlannedStories() throws HttpException, IOException, InterruptedException {
         JSONArray stories = new JSONArray();
 
-        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpClient httpClient = HttpTransport.getInstance().getHttpClient();
 
         // Primeira chamada com with_state=started
         String request = "/projects/" + projectID + "/stories?with_state=started";
@@ -385,7 +385,7 @@ public class PivotalTracker {
         String requestFil = "/projects/" + projectID + "/uploads";
         String requestComment = "/projects/" + projectID + "/stories/" + taskID + "/comments?fields=%3Adefault%2Cfile_attachment_ids";
 
-        OkHttpClient client = new OkHttpClient();
+        OkHttpClient client = HttpTransport.getInstance().getOkHttpClient();
 
         try {
             // Upload file
@@ -453,7 +453,7 @@ public class PivotalTracker {
 
     public void deleteComment(String commentID, String taskID) throws HttpException, IOException, InterruptedException {
         String request = "/projects/" + projectID + "/stories/" + taskID + "/comments/" + commentID;
-        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpClient httpClient = HttpTransport.getInstance().getHttpClient();
         HttpRequest deleteRequest = HttpRequest.newBuilder()
                 .uri(URI.create(PIVOTAL_URL + API_PATH + request))
                 .header(TOKEN_HEADER, token)
@@ -0,0 +1,301 @@
+package br.edu.ufape.taiti.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Clones dos repositórios do GitHub analisados, guardados no diretório de sistema da IDE.
+ * Cada URL é clonada uma única vez (rasa e de um só branch) e atualizada com fetch incremental;
+ * todas as análises de TestI leem o mesmo clone. O espaço em disco é limitado: clones sem uso há muito
+ * tempo e, se preciso, os menos usados são removidos.
+ */
+public class RepositoryCache {
+
+    private static final long DEFAULT_MAX_BYTES = 2L * 1024 * 1024 * 1024;
+    private static final long MAX_UNUSED_MILLIS = TimeUnit.DAYS.toMillis(30);
+    private static final long CLONE_TIMEOUT_SECONDS = 600;
+    private static final long FETCH_TIMEOUT_SECONDS = 300;
+    private static final long FETCH_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(10); // Quando a revisão remota é desconhecida
+    private static final int UPDATES_BETWEEN_GC = 10;
+
+    private static RepositoryCache instance;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>(); // Por nome do diretório do clone
+
+    public RepositoryCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    public static synchronized RepositoryCache getInstance() {
+        if (instance == null) {
+            instance = new RepositoryCache(CacheFiles.systemDirectory("repositories"), DEFAULT_MAX_BYTES);
+        }
+        return instance;
+    }
+
+    /**
+     * Obtém o clone do repositório na revisão pedida, clonando ou atualizando se preciso. O clone fica
+     * reservado para leitura até {@link Checkout#close()}; enquanto houver leitores, ele não é atualizado nem removido.
+     *
+     * @param repositoryUrl URL do repositório.
+     * @param revision      SHA esperado do HEAD remoto, ou null se desconhecido (o clone é atualizado de tempos em tempos).
+     * @return O clone reservado, ou null se não foi possível clonar (ex: sem git ou sem rede).
+     */
+    public Checkout checkout(String repositoryUrl, String revision) {
+        String url = repositoryUrl.trim();
+        Entry entry = entryFor(RepositoryRevision.sha256(url).substring(0, 16));
+        // Caso comum: o clone já está na revisão pedida e é compartilhado com as análises em andamento
+        entry.lock.readLock().lock();
+        if (entry.isCurrent(revision)) {
+            touch(entry);
+            return new Checkout(entry);
+        }
+        entry.lock.readLock().unlock();
+
+        boolean changed = false;
+        entry.lock.writeLock().lock();
+        try {
+            // Outra thread pode ter atualizado o clone enquanto esta esperava
+            if (!entry.isCurrent(revision)) {
+                if (!entry.update(url)) {
+                    return null;
+                }
+                changed = true;
+            }
+            // Rebaixa para leitura: outras análises podem usar o clone ao mesmo tempo
+            entry.lock.readLock().lock();
+        } finally {
+            entry.lock.writeLock().unlock();
+        }
+        touch(entry);
+        if (changed) {
+            cleanUp();
+        }
+        return new Checkout(entry);
+    }
+
+    /**
+     * Remove clones sem uso há mais de 30 dias, clones incompletos e, se o total passar do limite,
+     * os clones menos usados. Clones em uso são mantidos.
+     */
+    public void cleanUp() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> clones = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) stream::iterator) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    deleteIfUnused(path, name.substring(0, name.length() - ".tmp".length())); // Clone interrompido
+                } else if (Files.isDirectory(path)) {
+                    clones.add(path);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Aviso: falha ao limpar o cache de repositórios: " + e.getMessage());
+            return;
+        }
+        clones.sort(Comparator.comparingLong(this::lastUsed));
+        long totalBytes = 0;
+        List<Path> kept = new ArrayList<>();
+        for (Path clone : clones) {
+            if (System.currentTimeMillis() - lastUsed(clone) > MAX_UNUSED_MILLIS && deleteIfUnused(clone, clone.getFileName().toString())) {
+                continue;
+            }
+            totalBytes += sizeOf(clone);
+            kept.add(clone);
+        }
+        for (Path clone : kept) {
+            if (totalBytes <= maxBytes) {
+                break;
+            }
+            long bytes = sizeOf(clone);
+            if (deleteIfUnused(clone, clone.getFileName().toString())) {
+                totalBytes -= bytes;
+            }
+        }
+    }
+
+    /**
+     * @param name Nome do diretório do clone dono do caminho; o lock dele garante que o clone não está em uso.
+     */
+    private boolean deleteIfUnused(Path path, String name) {
+        Entry entry = entryFor(name);
+        if (!entry.lock.writeLock().tryLock()) {
+            return false; // Em uso (ou sendo clonado)
+        }
+        try {
+            deleteRecursively(path);
+            deleteRecursively(markerFor(path));
+            entry.revision = null;
+            return true;
+        } catch (IOException e) {
+            System.err.println("Aviso: não foi possível remover " + path + ": " + e.getMessage());
+            return false;
+        } finally {
+            entry.lock.writeLock().unlock();
+        }
+    }
+
+    private Entry entryFor(String name) {
+        return entries.computeIfAbsent(name, k -> new Entry(directory.resolve(k)));
+    }
+
+    // A data de uso fica num arquivo ao lado do clone, fora da árvore do Git
+    private Path markerFor(Path clone) {
+        return clone.resolveSibling(clone.getFileName() + ".used");
+    }
+
+    private void touch(Entry entry) {
+        try {
+            Path marker = markerFor(entry.path);
+            if (!Files.exists(marker)) {
+                Files.createFile(marker); // Já com a data atual
+            } else {
+                CacheFiles.markUsed(marker);
+            }
+        } catch (IOException e) {
+            System.err.println("Aviso: não foi possível registrar o uso de " + entry.path + ": " + e.getMessage());
+        }
+    }
+
+    private long lastUsed(Path clone) {
+        try {
+            return Files.getLastModifiedTime(markerFor(clone)).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try (Stream<Path> files = Files.walk(path)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        } catch (IOException | RuntimeException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                // Objetos do Git são somente leitura no Windows
+                file.toFile().setWritable(true);
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Clone reservado para leitura. Deve ser fechado ao fim da análise.
+     */
+    public static class Checkout implements AutoCloseable {
+        private final Entry entry;
+        private boolean closed;
+
+        Checkout(Entry entry) {
+            this.entry = entry;
+        }
+
+        public Path getPath() {
+            return entry.path;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                entry.lock.readLock().unlock();
+            }
+        }
+    }
+
+    private static class Entry {
+        private final Path path;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile String revision; // Commit do clone, null se ainda não foi verificado nesta sessão
+        private long fetchedAt;
+        private int updates;
+
+        Entry(Path path) {
+            this.path = path;
+        }
+
+        boolean isCurrent(String expectedRevision) {
+            if (revision == null) {
+                return false;
+            }
+            if (expectedRevision != null) {
+                return expectedRevision.equals(revision);
+            }
+            return System.currentTimeMillis() - fetchedAt < FETCH_INTERVAL_MILLIS;
+        }
+
+        /**
+         * Clona o repositório, ou traz só o último commit do branch padrão se o clone já existe.
+         * Chamado com o lock de escrita.
+         */
+        boolean update(String url) {
+            boolean updated = Files.isDirectory(path.resolve(".git")) ? fetch() : cloneFresh(url);
+            if (!updated) {
+                return false;
+            }
+            String head = RepositoryRevision.runGit(path, FETCH_TIMEOUT_SECONDS, "rev-parse", "HEAD");
+            if (head == null) {
+                return false;
+            }
+            revision = head;
+            fetchedAt = System.currentTimeMillis();
+            return true;
+        }
+
+        private boolean fetch() {
+            if (RepositoryRevision.runGit(path, FETCH_TIMEOUT_SECONDS, "fetch", "--depth", "1", "--no-tags", "origin", "HEAD") == null
+                    || RepositoryRevision.runGit(path, FETCH_TIMEOUT_SECONDS, "reset", "--hard", "--quiet", "FETCH_HEAD") == null) {
+                return false;
+            }
+            // Descarta arquivos criados fora do Git, para que todas as análises vejam a mesma árvore
+            RepositoryRevision.runGit(path, FETCH_TIMEOUT_SECONDS, "clean", "-fdxq");
+            if (++updates % UPDATES_BETWEEN_GC == 0) {
+                // Commits antigos deixam de ser alcançáveis a cada fetch raso
+                RepositoryRevision.runGit(path, FETCH_TIMEOUT_SECONDS, "gc", "--prune=now", "--quiet");
+            }
+            return true;
+        }
+
+        private boolean cloneFresh(String url) {
+            Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+            try {
+                deleteRecursively(path);
+                deleteRecursively(tempPath);
+                Files.createDirectories(path.getParent());
+                if (RepositoryRevision.runGit(null, CLONE_TIMEOUT_SECONDS, "clone", "--depth", "1", "--single-branch", "--no-tags",
+                        "--quiet", url, tempPath.toString()) == null) {
+                    deleteRecursively(tempPath);
+                    return false;
+                }
+                Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE);
+                return true;
+            } catch (IOException e) {
+                System.err.println("Aviso: não foi possível clonar " + url + ": " + e.getMessage());
+                return false;
+            }
+        }
+    }
+}
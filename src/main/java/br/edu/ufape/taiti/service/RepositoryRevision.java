@@ -0,0 +1,131 @@
+package br.edu.ufape.taiti.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Descobre o commit atual de um repositório Git, usado para saber se resultados de análise ainda valem.
+ * Usa o executável git instalado; sem ele (ou sem rede), as consultas retornam null.
+ */
+public final class RepositoryRevision {
+
+    private static final long GIT_TIMEOUT_SECONDS = 20;
+    private static final Pattern SHA_PATTERN = Pattern.compile("^[0-9a-f]{40}$");
+
+    private RepositoryRevision() {
+    }
+
+    /**
+     * Consulta o commit do HEAD remoto com git ls-remote, sem clonar nada.
+     *
+     * @param repositoryUrl URL do repositório (ex: a URL do GitHub configurada).
+     * @return SHA do commit, ou null se não foi possível descobri-lo.
+     */
+    public static String remoteHead(String repositoryUrl) {
+        if (repositoryUrl == null || repositoryUrl.trim().isEmpty()) {
+            return null;
+        }
+        String output = runGit(null, "ls-remote", repositoryUrl.trim(), "HEAD");
+        if (output == null || output.isEmpty()) {
+            return null;
+        }
+        String sha = output.split("\\s+")[0];
+        return SHA_PATTERN.matcher(sha).matches() ? sha : null;
+    }
+
+    /**
+     * Identifica o estado de uma cópia de trabalho local: o commit do HEAD e, se houver alterações
+     * não commitadas, um hash delas, para que editar um arquivo também invalide os resultados.
+     *
+     * @param workingCopy Diretório da cópia de trabalho.
+     * @return Identificador da revisão, ou null se o diretório não for um repositório Git.
+     */
+    public static String localHead(Path workingCopy) {
+        String head = runGit(workingCopy, "rev-parse", "HEAD");
+        if (head == null || !SHA_PATTERN.matcher(head).matches()) {
+            return null;
+        }
+        String status = runGit(workingCopy, "status", "--porcelain");
+        if (status == null) {
+            return null;
+        }
+        if (status.isEmpty()) {
+            return head;
+        }
+        String diff = runGit(workingCopy, "diff", "HEAD");
+        if (diff == null) {
+            return null;
+        }
+        return head + "-dirty-" + sha256(status + "\n" + diff);
+    }
+
+    private static String runGit(Path workingDirectory, String... args) {
+        return runGit(workingDirectory, GIT_TIMEOUT_SECONDS, args);
+    }
+
+    /**
+     * Executa o git e devolve a saída sem espaços nas pontas.
+     *
+     * @param workingDirectory Diretório onde o comando roda, ou null para o diretório atual.
+     * @return Saída do comando, ou null se ele falhou, excedeu o tempo limite ou o git não está instalado.
+     */
+    static String runGit(Path workingDirectory, long timeoutSeconds, String... args) {
+        String[] command = new String[args.length + 1];
+        command[0] = "git";
+        System.arraycopy(args, 0, command, 1, args.length);
+        Process process = null;
+        Path output = null;
+        try {
+            // A saída vai para um arquivo: saídas grandes (ex: git diff) não bloqueiam o processo
+            output = Files.createTempFile("taiti-git", ".out");
+            ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(output.toFile());
+            if (workingDirectory != null) {
+                builder.directory(workingDirectory.toFile());
+            }
+            process = builder.start();
+            process.getOutputStream().close();
+            if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+                System.err.println("Aviso: git " + args[0] + " excedeu o tempo limite.");
+                return null;
+            }
+            String text = new String(Files.readAllBytes(output), StandardCharsets.UTF_8).trim(); // Tolera bytes inválidos (ex: diffs binários)
+            if (process.exitValue() != 0) {
+                System.err.println("Aviso: git " + args[0] + " falhou: " + text);
+                return null;
+            }
+            return text;
+        } catch (IOException e) {
+            System.err.println("Aviso: não foi possível executar o git: " + e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            if (process != null && process.isAlive()) {
+                process.destroyForcibly();
+            }
+            if (output != null) {
+                output.toFile().delete();
+            }
+        }
+    }
+
+    static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
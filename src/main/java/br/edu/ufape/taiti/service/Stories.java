@@ -2,21 +2,37 @@ package br.edu.ufape.taiti.service;
 
 // import br.edu.ufape.taiti.exceptions.HttpException; // Replaced by TrelloApiException if applicable
 import br.edu.ufape.taiti.service.TrelloService.TrelloApiException; // Assuming TrelloService has this
-import br.ufpe.cin.tan.analysis.task.TodoTask;
-import br.ufpe.cin.tan.conflict.PlannedTask;
 import br.ufpe.cin.tan.exception.CloningRepositoryException;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.project.Project;
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.IOException;
-import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashMap;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Stories {
     private final List<Task> myUnstartedTasks; // Renamed from myUnstartedStories
@@ -27,13 +43,48 @@ public class Stories {
     private String authenticatedTrelloUserId; // Changed from ownerID
 
     private final Project project; // Keep if TaitiTool or Task needs it
-    private final String githubURL;  // Keep if TodoTask needs it
+    private final String githubURL;  // Analyzed by TodoTask unless the local working-copy mode is enabled
 
-    // Define Trello list names that categorize tasks
-    // These should match the names of your lists in Trello
-    private static final List<String> UNSTARTED_LIST_NAMES = Arrays.asList("TODO", "Backlog", "Unstarted");
-    private static final List<String> PENDING_LIST_NAMES = Arrays.asList("DOING");
+    private static final int CARDS_PER_DETAILS_BATCH = 5; // Two /batch routes per card, ten routes per call
+    private static final int MAX_CARDS_IN_FLIGHT = 64;
+    private static final long PROGRESS_POLL_MILLIS = 200;
+    // How long a remote HEAD stays trusted, so watcher refreshes close together share one git ls-remote
+    private static final long REMOTE_REVISION_TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    // Board actions that change list roles or member names; the incremental sync reloads the board on these
+    private static final Set<String> BOARD_STRUCTURE_ACTIONS = new HashSet<>(Arrays.asList(
+            "createList", "updateList", "moveListToBoard", "moveListFromBoard",
+            "addMemberToBoard", "removeMemberFromBoard", "updateMember"));
 
+    // Incremental sync state, kept between refreshes
+    private BoardSnapshot lastSnapshot;
+    // Both null force a full reload on the next refresh
+    private volatile String lastSyncActionId; // Null when the board had no actions at the last sync
+    private volatile String lastSyncActivity; // The board's dateLastActivity at the last sync
+    private final Map<String, Integer> boardOrder = new ConcurrentHashMap<>();
+
+    // TestI runs on the shared TestIService, which reuses results while the repository revision and
+    // the card's scenarios are unchanged
+    private final TestIService testIService = TestIService.getInstance();
+    private final Object revisionLock = new Object(); // Not the Stories monitor: startList holds it while cards are analyzed
+    private AnalysisTarget analysisTarget;
+    private String repositoryRevision; // Null when it cannot be resolved: every card is analyzed
+    private long revisionResolvedAt; // 0 until the revision is resolved for the current target
+    // What the listed tasks were analyzed against; a refresh that finds them different reloads everything
+    private String syncedTargetKey;
+    private String syncedRevision;
+
+    /**
+     * Notified from the pipeline threads each time a card lands in one of the result lists,
+     * so callers can show tasks before the whole board is processed.
+     */
+    public interface TaskListener {
+        TaskListener NONE = (task, myUnstarted) -> { };
+
+        /**
+         * @param myUnstarted true for myUnstartedTasks, false for otherPendingTasks.
+         */
+        void taskClassified(Task task, boolean myUnstarted);
+    }
 
     public Stories(TrelloService trelloService, Project project, String githubURL) {
         this.githubURL = githubURL;
@@ -58,126 +109,551 @@ public class Stories {
     }
 
     public void clearLists() {
+        invalidateSync(); // Cleared lists can only be rebuilt by a full sync
         myUnstartedTasks.clear();
         otherPendingTasks.clear();
         noScenarioTasks.clear();
     }
 
+    /**
+     * Loads or updates the task lists. The first call (and any call after a failed, cancelled or
+     * structural change) loads the whole board; later calls only re-process the cards touched by
+     * board actions since the previous sync, so a refresh of a quiet board costs a single request.
+     */
     public void startList(ProgressIndicator indicator) {
-        clearLists();
+        startList(indicator, TaskListener.NONE);
+    }
 
+    /**
+     * Same as {@link #startList(ProgressIndicator)}, publishing each classified task to the listener as soon as
+     * it is ready. Tasks classified before a cancel stay in the lists.
+     */
+    public synchronized void startList(ProgressIndicator indicator, TaskListener listener) {
         if (this.authenticatedTrelloUserId == null) {
             // If user ID couldn't be fetched, we can't correctly categorize "my" tasks.
             // You might want to throw an error or show a notification here.
             System.err.println("Cannot load tasks: Authenticated Trello user ID is not available.");
             // Optionally, inform the user via indicator or a more prominent UI message.
             indicator.setText("Error: Trello user authentication issue.");
+            clearLists();
             return;
         }
 
         try {
-            // Fetch all cards from the configured Trello board
-            JSONArray cardsOnBoard = trelloService.getCardsOnBoard(); // Assumes this method exists in TrelloService
+            // Remote clone of githubURL or, if enabled in the settings, the project's own working copy.
+            // Its revision is only looked up once a card actually needs TestI
+            AnalysisTarget target = AnalysisTarget.forProject(project, githubURL);
+            synchronized (revisionLock) {
+                // A remote HEAD is reused for a short while; the local working copy is checked once per sync,
+                // since that costs no network call
+                boolean reusable = target instanceof AnalysisTarget.RemoteRepository
+                        && analysisTarget != null && analysisTarget.getKey().equals(target.getKey())
+                        && System.currentTimeMillis() - revisionResolvedAt <= REMOTE_REVISION_TTL_MILLIS;
+                if (!reusable) {
+                    revisionResolvedAt = 0;
+                }
+                analysisTarget = target;
+            }
+            boolean synced = (lastSyncActionId != null || lastSyncActivity != null) && lastSnapshot != null
+                    && !analysisChanged(target) && syncIncrementally(indicator, listener);
+            if (!synced) {
+                syncFully(indicator, listener);
+            }
+            if (!indicator.isCanceled()) {
+                synchronized (revisionLock) {
+                    syncedTargetKey = target.getKey();
+                    syncedRevision = revisionResolvedAt != 0 ? repositoryRevision : null;
+                }
+            }
+        } catch (InterruptedException | IOException | CloningRepositoryException e) {
+            // Log or handle the exception appropriately
+            // e.g., show an error message to the user through the UI
+            // For now, re-throwing as a runtime exception to indicate a critical failure
+            invalidateSync(); // The lists may be half-updated; the next refresh reloads everything
+            System.err.println("Error processing Trello cards: " + e.getMessage());
+            e.printStackTrace(); // It's good to print stack trace for debugging
+            // Consider creating a custom, checked exception if this needs to be handled more gracefully upstream.
+            throw new RuntimeException("Failed to process Trello cards", e);
+        }
+    }
 
-            for (int i = 0; i < cardsOnBoard.length(); i++) {
-                if (indicator.isCanceled()) {
+    private void syncFully(ProgressIndicator indicator, TaskListener listener) throws IOException, InterruptedException, CloningRepositoryException {
+        clearLists();
+        boardOrder.clear();
+
+        // Taken before the load, so actions that happen while it runs are picked up by the next sync.
+        // A board without actions has no action ID to read changes from, so its last activity date is kept too
+        indicator.setText("Fetching Trello board...");
+        String syncActivity = trelloService.getBoardLastActivity();
+        String syncMarker = trelloService.getLatestBoardActionId();
+
+        // Lists, members and comments come in one small request; the cards are then read only from the
+        // relevant lists, so the payload grows with the relevant cards rather than with the board history
+        BoardSnapshot snapshot = trelloService.getBoardSnapshot();
+        BoardListIndex listIndex = snapshot.getListIndex();
+
+        indicator.setIndeterminate(true);
+        try (CardPipeline pipeline = new CardPipeline(indicator, snapshot, listener)) {
+            // The user's unstarted cards come from /boards/{id}/members/me/cards instead of every unstarted list.
+            // Cards are streamed: the first ones are processed while the rest of the list is still downloading
+            List<String> unstartedListIds = listIndex.getListIds(BoardListIndex.Role.UNSTARTED);
+            feedStream(pipeline, trelloService.streamMyOpenCardsInLists(unstartedListIds), snapshot);
+            for (String pendingListId : listIndex.getListIds(BoardListIndex.Role.PENDING)) {
+                if (pipeline.isStopped()) {
                     break;
                 }
-                JSONObject cardJson = cardsOnBoard.getJSONObject(i);
-                indicator.setFraction((double) i / cardsOnBoard.length());
-                indicator.setText("" +
-                        "Processing Trello card " + (i + 1) + " of " + cardsOnBoard.length());
-                indicator.setText2("Card Name: " + cardJson.optString("name", "N/A"));
-
-
-                // The Task constructor needs to be adapted to take a Trello card JSONObject
-                // and the TrelloService instance (if needed for further lookups within Task)
-                Task trelloCardTask = new Task(cardJson, trelloService, project);
-
-                String listId = trelloCardTask.getListId(); // Assumes Task can provide its list ID
-                String listName = "";
-                if (listId != null && !listId.isEmpty()) {
-                    // Fetch list details to get the name
-                    // This could be optimized by caching list names if TrelloService supports it
-                    // or if Task constructor handles this lookup.
-                    try {
-                        JSONObject listDetails = trelloService.getListDetails(listId);
-                        listName = listDetails.optString("name", "");
-                    } catch (IOException | InterruptedException e) {
-                        System.err.println("Could not fetch list details for list ID " + listId + ": " + e.getMessage());
-                        // Continue processing other cards, or handle error more strictly
-                    }
+                feedStream(pipeline, trelloService.streamOpenCardsInList(pendingListId), snapshot);
+            }
+            pipeline.awaitCompletion();
+        }
+        if (!indicator.isCanceled()) {
+            lastSnapshot = snapshot;
+            lastSyncActionId = syncMarker;
+            lastSyncActivity = syncActivity;
+        }
+    }
+
+    /**
+     * Whether the listed tasks were analyzed against other code than the target now holds: another repository
+     * or working copy, or a new commit. An incremental sync of a quiet board would otherwise keep their old TestI.
+     * The revision is only looked up if some listed task has TestI.
+     */
+    private boolean analysisChanged(AnalysisTarget target) {
+        if (!target.getKey().equals(syncedTargetKey)) {
+            return true;
+        }
+        boolean analyzed = false;
+        for (List<Task> list : Arrays.asList(myUnstartedTasks, otherPendingTasks)) {
+            synchronized (list) {
+                analyzed |= list.stream().anyMatch(Task::hasScenarios);
+            }
+        }
+        if (!analyzed) {
+            return false;
+        }
+        synchronized (revisionLock) {
+            return !Objects.equals(currentRevision(), syncedRevision);
+        }
+    }
+
+    private void invalidateSync() {
+        lastSyncActionId = null;
+        lastSyncActivity = null;
+    }
+
+    /**
+     * Re-processes only the cards touched by board actions since the last sync.
+     *
+     * @return false if the changes cannot be applied incrementally and the board must be reloaded.
+     */
+    private boolean syncIncrementally(ProgressIndicator indicator, TaskListener listener) throws IOException, InterruptedException, CloningRepositoryException {
+        indicator.setText("Checking Trello board for changes...");
+        String syncActivity = trelloService.getBoardLastActivity();
+        if (syncActivity != null && syncActivity.equals(lastSyncActivity)) {
+            return true;
+        }
+        if (lastSyncActionId == null) {
+            return false; // The board had no actions at the last sync and has changed since
+        }
+        JSONArray actions = trelloService.getBoardActionsSince(lastSyncActionId);
+        if (actions.length() == 0) {
+            lastSyncActivity = syncActivity;
+            return true;
+        }
+        if (actions.length() >= TrelloService.BOARD_ACTIONS_LIMIT) {
+            return false; // Older changes may be missing from the feed
+        }
+
+        Set<String> changedCardIds = new LinkedHashSet<>();
+        for (int i = 0; i < actions.length(); i++) {
+            JSONObject action = actions.getJSONObject(i);
+            if (BOARD_STRUCTURE_ACTIONS.contains(action.optString("type"))) {
+                return false; // List names/roles or board members changed: the cached snapshot is stale
+            }
+            JSONObject data = action.optJSONObject("data");
+            JSONObject card = data != null ? data.optJSONObject("card") : null;
+            if (card != null && card.has("id")) {
+                changedCardIds.add(card.getString("id"));
+            }
+        }
+        String syncMarker = actions.getJSONObject(0).getString("id"); // Actions come newest first
+        if (changedCardIds.isEmpty()) {
+            lastSyncActionId = syncMarker;
+            lastSyncActivity = syncActivity;
+            return true;
+        }
+
+        invalidateSync(); // Until this sync completes, a failure or cancel falls back to a full reload
+        for (List<Task> list : Arrays.asList(myUnstartedTasks, otherPendingTasks, noScenarioTasks)) {
+            synchronized (list) {
+                list.removeIf(task -> changedCardIds.contains(task.getId()));
+            }
+        }
+
+        indicator.setText("Updating " + changedCardIds.size() + " changed Trello cards...");
+        // Deleted cards are missing from the batch response and simply stay removed
+        Map<String, JSONObject> changedCards = trelloService.getCardsBatch(new ArrayList<>(changedCardIds));
+        List<JSONObject> openCards = new ArrayList<>();
+        for (JSONObject cardJson : changedCards.values()) {
+            if (!cardJson.optBoolean("closed", false)) {
+                openCards.add(cardJson);
+            }
+        }
+
+        try (CardPipeline pipeline = new CardPipeline(indicator, lastSnapshot, listener)) {
+            // The snapshot's comment feed is from the last full sync, so details are always fetched
+            feed(pipeline, openCards.iterator(), lastSnapshot, false);
+            pipeline.awaitCompletion();
+        }
+        if (!indicator.isCanceled()) {
+            lastSyncActionId = syncMarker;
+            lastSyncActivity = syncActivity;
+        }
+        return true;
+    }
+
+    /**
+     * Feeds a streamed card list into the pipeline and closes it, also when the pipeline stops early,
+     * so a cancel does not wait for the rest of the download.
+     */
+    private void feedStream(CardPipeline pipeline, TrelloCardStream cards, BoardSnapshot snapshot) throws IOException, InterruptedException {
+        try (cards) {
+            feed(pipeline, cards, snapshot, true);
+        } catch (JSONException e) {
+            throw new IOException("Failed to read the Trello card stream: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Pushes cards into the pipeline, dropping irrelevant ones and grouping those whose details
+     * must be fetched into /batch calls.
+     *
+     * @param useSnapshotDetails Whether comments and attachments may be taken from the snapshot.
+     */
+    private void feed(CardPipeline pipeline, Iterator<JSONObject> cards, BoardSnapshot snapshot, boolean useSnapshotDetails) throws InterruptedException {
+        List<JSONObject> cardsMissingDetails = new ArrayList<>();
+        while (cards.hasNext() && !pipeline.isStopped()) {
+            JSONObject cardJson = cards.next();
+            pipeline.cardFetched(cardJson);
+
+            // Cards in irrelevant lists (e.g. Done) are dropped before any per-card request or download
+            if (!isRelevant(cardJson, snapshot.getListIndex())) {
+                pipeline.cardSkipped();
+                continue;
+            }
+
+            // Cards whose comments did not fit in the snapshot's action feed are fetched through /batch
+            if (!useSnapshotDetails || snapshot.getCardDetails(cardJson) == null) {
+                cardsMissingDetails.add(cardJson);
+                if (cardsMissingDetails.size() == CARDS_PER_DETAILS_BATCH) {
+                    pipeline.submit(new ArrayList<>(cardsMissingDetails), true);
+                    cardsMissingDetails.clear();
                 }
+                continue;
+            }
+            pipeline.submit(List.of(cardJson), false);
+        }
+        if (!cardsMissingDetails.isEmpty() && !pipeline.isStopped()) {
+            pipeline.submit(cardsMissingDetails, true);
+        }
+    }
 
+    /**
+     * Staged card pipeline: fetch (the caller's stream) -> hydrate (Task build: comments, attachments, CSV)
+     * -> compute TestI (on the shared TestIService pool) -> classify. Each stage runs on its own bounded executor, so downloads for later cards
+     * overlap with the analysis of earlier ones. At most MAX_CARDS_IN_FLIGHT cards are between fetch and
+     * classify at any time, which also throttles the card stream.
+     */
+    private class CardPipeline implements AutoCloseable {
+        private final ProgressIndicator indicator;
+        private final BoardSnapshot snapshot;
+        private final TaskListener listener;
+        // One thread per concurrent request the user allows; they mostly wait on Trello, which the rate limiter paces anyway
+        private final ExecutorService hydrationExecutor = Executors.newFixedThreadPool(
+                trelloService.getMaxConcurrentRequests(), DaemonThreads.named("TAITI-Hydrate"));
+        private final Semaphore inFlight = new Semaphore(MAX_CARDS_IN_FLIGHT);
+        private final List<CompletableFuture<Void>> stages = new ArrayList<>();
+        private final AtomicInteger fetched = new AtomicInteger();
+        private final AtomicInteger hydrated = new AtomicInteger();
+        private final AtomicInteger analyzed = new AtomicInteger();
+        private final AtomicInteger classified = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger analysesCached = new AtomicInteger();
+        private final AtomicInteger analysesFailed = new AtomicInteger();
+        private final AtomicLong analysisMillis = new AtomicLong();
+        private final long startNanos = System.nanoTime();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private volatile boolean fetchFinished;
 
-                List<String> memberIds = trelloCardTask.getMemberIds(); // Assumes Task can provide assigned member IDs
-                boolean isAssignedToCurrentUser = memberIds != null && memberIds.contains(authenticatedTrelloUserId);
+        CardPipeline(ProgressIndicator indicator, BoardSnapshot snapshot, TaskListener listener) {
+            this.indicator = indicator;
+            this.snapshot = snapshot;
+            this.listener = listener;
+        }
+
+        boolean isStopped() {
+            return indicator.isCanceled() || failure.get() != null;
+        }
+
+        void cardFetched(JSONObject cardJson) {
+            // Cards already known keep their position; new ones go to the end
+            boardOrder.putIfAbsent(cardJson.getString("id"), boardOrder.size());
+            fetched.incrementAndGet();
+            indicator.setText2("Card Name: " + cardJson.optString("name", "N/A"));
+            reportProgress();
+        }
+
+        void cardSkipped() {
+            skipped.incrementAndGet();
+            reportProgress();
+        }
 
-                // Categorize based on list name and assignment
-                if (isAssignedToCurrentUser && UNSTARTED_LIST_NAMES.contains(listName)) {
-                    // Task is assigned to the current user and is in an "unstarted" list
-                    if (trelloCardTask.hasScenarios()) {
-                        processCardForConflictAnalysis(trelloCardTask);
-                        synchronized (myUnstartedTasks) {
-                            myUnstartedTasks.add(trelloCardTask);
+        void submit(List<JSONObject> cards, boolean fetchDetails) throws InterruptedException {
+            // A full pipeline can take minutes to drain, so the wait is polled like awaitCompletion
+            while (!inFlight.tryAcquire(cards.size(), PROGRESS_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                indicator.checkCanceled();
+                if (isStopped()) {
+                    return; // A stage failed; awaitCompletion reports it
+                }
+            }
+            CompletableFuture<Void> stage = CompletableFuture
+                    .supplyAsync(() -> hydrate(cards, fetchDetails), hydrationExecutor)
+                    .thenCompose(tasks -> {
+                        List<CompletableFuture<Void>> classifications = new ArrayList<>(tasks.size());
+                        for (Task task : tasks) {
+                            List<Task> target = targetListFor(task, snapshot.getListIndex().getRole(task.getListId()));
+                            if (target == myUnstartedTasks || target == otherPendingTasks) {
+                                classifications.add(analyze(task).thenRun(() -> classify(task, target)));
+                            } else {
+                                classify(task, target);
+                            }
                         }
-                    } else {
-                        synchronized (noScenarioTasks) {
-                            noScenarioTasks.add(trelloCardTask);
+                        return CompletableFuture.allOf(classifications.toArray(new CompletableFuture[0]));
+                    })
+                    .whenComplete((v, error) -> {
+                        if (error != null) {
+                            failure.compareAndSet(null, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
                         }
+                        inFlight.release(cards.size());
+                    });
+            stages.add(stage);
+        }
+
+        private List<Task> hydrate(List<JSONObject> cards, boolean fetchDetails) {
+            List<Task> tasks = new ArrayList<>(cards.size());
+            if (isStopped()) {
+                return tasks;
+            }
+            try {
+                // Cards left out of the batch response are fetched individually by Task
+                Map<String, TrelloService.CardDetails> detailsByCard = new HashMap<>();
+                if (fetchDetails) {
+                    List<String> cardIds = new ArrayList<>(cards.size());
+                    for (JSONObject cardJson : cards) {
+                        cardIds.add(cardJson.getString("id"));
                     }
-                } else if (PENDING_LIST_NAMES.contains(listName)) {
-                    // Task is in a "pending" list (could be assigned to others or unassigned,
-                    // or assigned to current user but in a "pending" but not "my unstarted" list like "In Progress")
-                    // We specifically add to otherPendingTasks if NOT assigned to current user OR if it's in a list
-                    // that implies it's active/pending for someone else to see.
-                    // The original logic was: (isStarted || isUnstarted) && plannedStoryOwnerID != ownerID
-                    // For Trello, this translates to: in a PENDING_LIST_NAME and (not assigned to me OR assigned to me but in a list like "In Progress")
-                    // For simplicity here, we'll add to otherPendingTasks if it's in a PENDING_LIST and not in myUnstartedTasks.
-                    // A more refined logic might be needed based on exact workflow.
-                    if (!isAssignedToCurrentUser || (isAssignedToCurrentUser && !UNSTARTED_LIST_NAMES.contains(listName))) {
-                        if (trelloCardTask.hasScenarios()) {
-                            processCardForConflictAnalysis(trelloCardTask);
-                            synchronized (otherPendingTasks) {
-                                otherPendingTasks.add(trelloCardTask);
-                            }
-                        } else {
-                            // If it's pending for others but has no scenarios, it might still be relevant for `noScenarioTasks`
-                            // or a different category. The original code added to noScenarioTasks.
-                            synchronized (noScenarioTasks) {
-                                noScenarioTasks.add(trelloCardTask);
+                    detailsByCard.putAll(trelloService.getCardDetailsBatch(cardIds));
+                }
+                for (JSONObject cardJson : cards) {
+                    TrelloService.CardDetails details = fetchDetails
+                            ? detailsByCard.get(cardJson.getString("id"))
+                            : snapshot.getCardDetails(cardJson);
+                    tasks.add(new Task(cardJson, trelloService, project, details, snapshot.getMemberDirectory()));
+                    hydrated.incrementAndGet();
+                    reportProgress();
+                }
+            } catch (IOException | InterruptedException e) {
+                throw new CompletionException(e);
+            }
+            return tasks;
+        }
+
+        private CompletableFuture<Void> analyze(Task task) {
+            if (isStopped() || !task.hasScenarios()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            AnalysisTarget target;
+            String revision;
+            synchronized (revisionLock) {
+                target = analysisTarget;
+                revision = currentRevision();
+            }
+            return testIService.compute(target, revision, task.getId(), task.getScenarios(), this::isStopped)
+                    .handle((result, error) -> {
+                        if (error != null) {
+                            // One card that cannot be analyzed must not fail the sync: it is listed without TestI
+                            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                            if (cause instanceof Error) {
+                                throw (Error) cause;
                             }
+                            analysesFailed.incrementAndGet();
+                            System.err.println("TestI analysis failed for card " + task.getId() + ": " + cause);
+                            return null;
                         }
-                    }
+                        return result;
+                    })
+                    .thenAccept(result -> {
+                        if (result == null) {
+                            return; // Cancelled before it started, or failed
+                        }
+                        task.setiTesk(result.getPlannedTask()); // Assumes Task has setiTesk()
+                        analysisMillis.addAndGet(result.getMillis());
+                        if (result.isCached()) {
+                            analysesCached.incrementAndGet();
+                        }
+                        analyzed.incrementAndGet();
+                        reportProgress();
+                    });
+        }
+
+        private void classify(Task task, List<Task> target) {
+            if (target != null && !indicator.isCanceled()) {
+                synchronized (target) {
+                    target.add(task);
+                }
+                if (target != noScenarioTasks) {
+                    listener.taskClassified(task, target == myUnstartedTasks);
+                }
+            }
+            classified.incrementAndGet();
+            reportProgress();
+        }
+
+        private void reportProgress() {
+            int fetched = this.fetched.get();
+            int analyzed = this.analyzed.get();
+            String analysis = "";
+            if (analyzed > 0) {
+                double elapsedMinutes = (System.nanoTime() - startNanos) / 60e9;
+                analysis = String.format(" (TestI: %d cached, %d ms/card, %.1f cards/min)",
+                        analysesCached.get(), analysisMillis.get() / analyzed, analyzed / Math.max(elapsedMinutes, 1e-3));
+            }
+            if (analysesFailed.get() > 0) {
+                analysis += ", " + analysesFailed.get() + " failed";
+            }
+            indicator.setText("Trello cards: " + fetched + " fetched, " + skipped.get() + " skipped, " + hydrated.get() + " loaded, "
+                    + analyzed + " analyzed" + analysis + ", " + classified.get() + " classified");
+            if (fetchFinished && fetched > 0) {
+                indicator.setFraction((double) (classified.get() + skipped.get()) / fetched);
+            }
+        }
+
+        /**
+         * Waits until every submitted card went through all stages (or the user cancelled),
+         * then restores the board order in the result lists.
+         */
+        void awaitCompletion() throws IOException, InterruptedException, CloningRepositoryException {
+            fetchFinished = true;
+            indicator.setIndeterminate(false);
+            reportProgress();
+            CompletableFuture<Void> all = CompletableFuture.allOf(stages.toArray(new CompletableFuture[0]));
+            while (!all.isDone() && !indicator.isCanceled()) {
+                try {
+                    all.get(PROGRESS_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException | ExecutionException e) {
+                    // Keep polling for cancellation; failures are collected per stage
+                }
+            }
+
+            Throwable error = failure.get();
+            if (error instanceof IOException) {
+                throw (IOException) error;
+            } else if (error instanceof InterruptedException) {
+                throw (InterruptedException) error;
+            } else if (error instanceof CloningRepositoryException) {
+                throw (CloningRepositoryException) error;
+            } else if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            } else if (error != null) {
+                throw new RuntimeException(error);
+            }
+
+            Comparator<Task> byBoardOrder = Comparator.comparingInt(task -> boardOrder.getOrDefault(task.getId(), Integer.MAX_VALUE));
+            for (List<Task> list : Arrays.asList(myUnstartedTasks, otherPendingTasks, noScenarioTasks)) {
+                synchronized (list) {
+                    list.sort(byBoardOrder);
                 }
-                // Cards in other lists (e.g., "Done") are ignored by this logic
             }
-        } catch (InterruptedException | IOException | CloningRepositoryException e) {
-            // Log or handle the exception appropriately
-            // e.g., show an error message to the user through the UI
-            // For now, re-throwing as a runtime exception to indicate a critical failure
-            System.err.println("Error processing Trello cards: " + e.getMessage());
-            e.printStackTrace(); // It's good to print stack trace for debugging
-            // Consider creating a custom, checked exception if this needs to be handled more gracefully upstream.
-            throw new RuntimeException("Failed to process Trello cards", e);
         }
+
+        @Override
+        public void close() {
+            hydrationExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Resolves the revision of the analysis target when the first card of a sync needs TestI, so refreshes
+     * that analyze nothing skip the lookup. Must be called while holding revisionLock.
+     */
+    private String currentRevision() {
+        if (revisionResolvedAt == 0) {
+            repositoryRevision = analysisTarget.resolveRevision();
+            revisionResolvedAt = System.currentTimeMillis();
+        }
+        return repositoryRevision;
+    }
+
+    /**
+     * Pre-classification from the card payload alone (idList and idMembers), before the card is hydrated.
+     * Mirrors {@link #targetListFor}: only pending cards and unstarted cards assigned to the current user
+     * can end up in a result list.
+     */
+    private boolean isRelevant(JSONObject cardJson, BoardListIndex listIndex) {
+        BoardListIndex.Role listRole = listIndex.getRole(cardJson.optString("idList", null));
+        if (listRole == BoardListIndex.Role.PENDING) {
+            return true;
+        }
+        if (listRole != BoardListIndex.Role.UNSTARTED) {
+            return false;
+        }
+        JSONArray memberIds = cardJson.optJSONArray("idMembers");
+        if (memberIds != null) {
+            for (int i = 0; i < memberIds.length(); i++) {
+                if (authenticatedTrelloUserId.equals(memberIds.optString(i))) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
-    // Renamed from processPlannedStory to reflect Trello context
-    private void processCardForConflictAnalysis(Task trelloCardTask) throws CloningRepositoryException {
-        // This method's internal logic for TodoTask and PlannedTask depends heavily on
-        // how trelloCardTask.getScenarios() is implemented for Trello and
-        // whether the githubURL is still the correct source for code analysis.
-        if (trelloCardTask.hasScenarios()) {
-            ArrayList<LinkedHashMap<String, Serializable>> tests = trelloCardTask.getScenarios();
-            String cardId = String.valueOf(trelloCardTask.getId()); // Trello card ID
+    /**
+     * Decides which result list a hydrated card belongs to, using the role of its list
+     * (see {@link BoardListIndex}); no request is needed.
+     * Cards in lists missing from the index (e.g. archived lists) have role OTHER and are ignored.
+     *
+     * @return myUnstartedTasks, otherPendingTasks or noScenarioTasks, or null if the card is ignored.
+     */
+    private List<Task> targetListFor(Task trelloCardTask, BoardListIndex.Role listRole) {
+        List<String> memberIds = trelloCardTask.getMemberIds(); // Assumes Task can provide assigned member IDs
+        boolean isAssignedToCurrentUser = memberIds != null && memberIds.contains(authenticatedTrelloUserId);
 
-            // The TodoTask might need adaptation if its constructor or methods expect Pivotal-specific data.
-            // Assuming githubURL is still relevant for fetching code to analyze against scenarios.
-            TodoTask todoTask = new TodoTask(githubURL, Integer.parseInt(cardId), tests);
-            PlannedTask plannedTask = todoTask.generateTaskForConflictAnalysis();
-            trelloCardTask.setiTesk(plannedTask); // Assumes Task has setiTesk()
+        // Categorize based on list role and assignment
+        if (isAssignedToCurrentUser && listRole == BoardListIndex.Role.UNSTARTED) {
+            // Task is assigned to the current user and is in an "unstarted" list
+            return trelloCardTask.hasScenarios() ? myUnstartedTasks : noScenarioTasks;
+        } else if (listRole == BoardListIndex.Role.PENDING) {
+            // Task is in a "pending" list (could be assigned to others or unassigned,
+            // or assigned to current user but in a "pending" list like "In Progress").
+            // The original logic was: (isStarted || isUnstarted) && plannedStoryOwnerID != ownerID
+            // A more refined logic might be needed based on exact workflow.
+            // If it's pending but has no scenarios, the original code added it to noScenarioTasks.
+            return trelloCardTask.hasScenarios() ? otherPendingTasks : noScenarioTasks;
         }
+        // Cards in other lists (e.g., "Done") are ignored by this logic
+        return null;
+    }
+
+    public TrelloService getTrelloService() {
+        return trelloService;
+    }
+
+    /**
+     * @return The board's dateLastActivity taken when the last successful sync started, or null if unknown.
+     */
+    public String getSyncedBoardActivity() {
+        return lastSyncActivity;
     }
 
     public List<Task> getMyUnstartedTasks() { // Renamed
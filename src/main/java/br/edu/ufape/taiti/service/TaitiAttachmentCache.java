@@ -0,0 +1,103 @@
+package br.edu.ufape.taiti.service;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Cache local dos arquivos de cenários TAITI anexados aos cartões, indexado pelo ID do anexo no Trello.
+ * Anexos do Trello nunca mudam (um novo upload gera um novo ID), então cada anexo é baixado uma única vez.
+ * O tamanho total é limitado e os arquivos menos usados recentemente são removidos primeiro.
+ */
+public class TaitiAttachmentCache {
+
+    private static final long DEFAULT_MAX_BYTES = 50L * 1024 * 1024;
+    private static final int MAX_PARSED_ENTRIES = 1000;
+    private static final Pattern ATTACHMENT_ID_PATTERN = Pattern.compile("^[a-zA-Z0-9]+$");
+
+    private static TaitiAttachmentCache instance;
+
+    private final Path directory;
+    private final long maxBytes;
+    // Cenários já convertidos, para que refreshes seguintes não leiam nem o disco
+    private final Map<String, ArrayList<LinkedHashMap<String, Serializable>>> parsedScenarios =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ArrayList<LinkedHashMap<String, Serializable>>> eldest) {
+                    return size() > MAX_PARSED_ENTRIES;
+                }
+            };
+
+    public TaitiAttachmentCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    public static synchronized TaitiAttachmentCache getInstance() {
+        if (instance == null) {
+            instance = new TaitiAttachmentCache(CacheFiles.systemDirectory("attachments"), DEFAULT_MAX_BYTES);
+        }
+        return instance;
+    }
+
+    /**
+     * @return IDs válidos podem ser usados como nome de arquivo; outros não são guardados.
+     */
+    public boolean accepts(String attachmentId) {
+        return attachmentId != null && ATTACHMENT_ID_PATTERN.matcher(attachmentId).matches();
+    }
+
+    /**
+     * @return O arquivo guardado para o anexo, ou null se ainda não foi baixado.
+     */
+    public synchronized Path get(String attachmentId) {
+        if (!accepts(attachmentId)) {
+            return null;
+        }
+        Path file = fileFor(attachmentId);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        CacheFiles.markUsed(file);
+        return file;
+    }
+
+    /**
+     * Guarda o conteúdo de um anexo e remove os menos usados se o limite de tamanho for ultrapassado.
+     *
+     * @return O arquivo guardado.
+     */
+    public synchronized Path put(String attachmentId, byte[] content) throws IOException {
+        if (!accepts(attachmentId)) {
+            throw new IllegalArgumentException("ID de anexo inválido para o cache: " + attachmentId);
+        }
+        Files.createDirectories(directory);
+        Path file = fileFor(attachmentId);
+        Path tempFile = Files.createTempFile(directory, attachmentId, ".tmp");
+        Files.write(tempFile, content);
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        CacheFiles.evict(directory, ".csv", maxBytes, Long.MAX_VALUE, file);
+        return file;
+    }
+
+    /**
+     * @return Os cenários já convertidos do anexo, ou null se ainda não foram lidos nesta sessão.
+     */
+    public synchronized ArrayList<LinkedHashMap<String, Serializable>> getScenarios(String attachmentId) {
+        return parsedScenarios.get(attachmentId);
+    }
+
+    public synchronized void putScenarios(String attachmentId, ArrayList<LinkedHashMap<String, Serializable>> scenarios) {
+        parsedScenarios.put(attachmentId, scenarios);
+    }
+
+    private Path fileFor(String attachmentId) {
+        return directory.resolve(attachmentId + ".csv");
+    }
+}
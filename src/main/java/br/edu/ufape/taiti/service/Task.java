@@ -3,20 +3,19 @@ package br.edu.ufape.taiti.service;
 // import br.edu.ufape.taiti.exceptions.HttpException; // Replaced by TrelloApiException if applicable
 import br.edu.ufape.taiti.service.TrelloService.TrelloApiException;
 import br.edu.ufape.taiti.tool.ScenarioTestInformation;
-import br.edu.ufape.taiti.tool.TaitiTool;
 import br.ufpe.cin.tan.conflict.PlannedTask;
 import com.intellij.openapi.project.Project;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import org.json.JSONException;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class Task {
 
@@ -31,6 +30,7 @@ public class Task {
     private String primaryPersonName; // Name of the first member, or a relevant assigned person
     private ArrayList<LinkedHashMap<String, Serializable>> scenarios = new ArrayList<>();
     private PlannedTask iTesk; // For conflict analysis
+    private final Set<String> testIFiles = new LinkedHashSet<>(); // TestI restored from a snapshot, until iTesk is recomputed
 
     private ArrayList<Task> conflictTasks = new ArrayList<>();
     private ArrayList<LinkedHashMap<String, Serializable>> conflictScenarios = new ArrayList<>();
@@ -50,6 +50,34 @@ public class Task {
      * @param project       IntelliJ project instance.
      */
     public Task(JSONObject cardJson, TrelloService trelloService, Project project) throws TrelloApiException, IOException, InterruptedException {
+        this(cardJson, trelloService, project, null, new MemberDirectory(trelloService.getBoardMembers()));
+    }
+
+    /**
+     * Constructor for a Task whose comments, attachments and board members were already fetched
+     * (e.g. through TrelloService batch requests). Details left null are fetched individually.
+     *
+     * @param cardJson      JSONObject representing a Trello card.
+     * @param trelloService Instance of TrelloService to fetch related data.
+     * @param project       IntelliJ project instance.
+     * @param details       Prefetched comments and attachments of the card, or null.
+     * @param members       Member directory of the board.
+     */
+    public Task(JSONObject cardJson, TrelloService trelloService, Project project,
+                TrelloService.CardDetails details, MemberDirectory members) throws TrelloApiException, IOException, InterruptedException {
+        this(cardJson);
+
+        // Attempt to set a primary person name (e.g., first member)
+        // A more sophisticated approach might be needed if specific ownership is key
+        setPrimaryPersonName(members);
+        // Load scenarios associated with this Trello card
+        loadScenariosFromTrelloCard(trelloService, details);
+    }
+
+    /**
+     * Reads the card fields only; used by the public constructors and when restoring a saved snapshot.
+     */
+    private Task(JSONObject cardJson) {
         this.id = cardJson.getString("id");
         this.name = cardJson.getString("name");
         this.url = cardJson.getString("url");
@@ -72,86 +100,106 @@ public class Task {
                 this.labelNames.add(labelObj.optString("name", ""));
             }
         }
+    }
 
-        // Attempt to set a primary person name (e.g., first member)
-        // A more sophisticated approach might be needed if specific ownership is key
-        setPrimaryPersonName(trelloService);
-        // Load scenarios associated with this Trello card
-        loadScenariosFromTrelloCard(trelloService, project);
+    /**
+     * Restores a Task saved with {@link #toSnapshotJson()}, without any request.
+     * The restored task has no PlannedTask; its TestI files are available through {@link #getTestIFiles()}.
+     */
+    public static Task fromSnapshotJson(JSONObject json) {
+        Task task = new Task(json.getJSONObject("card"));
+        task.primaryPersonName = json.optString("personName", "Unassigned");
+        task.hasScenarios = json.optBoolean("hasScenarios", false);
+        task.conflictRate = json.optDouble("conflictRate", 0.0);
+
+        JSONArray scenariosJson = json.optJSONArray("scenarios");
+        if (scenariosJson != null) {
+            for (int i = 0; i < scenariosJson.length(); i++) {
+                JSONObject scenarioJson = scenariosJson.getJSONObject(i);
+                ArrayList<Integer> lines = new ArrayList<>();
+                JSONArray linesJson = scenarioJson.optJSONArray("lines");
+                for (int j = 0; linesJson != null && j < linesJson.length(); j++) {
+                    lines.add(linesJson.getInt(j));
+                }
+                LinkedHashMap<String, Serializable> scenario = new LinkedHashMap<>();
+                scenario.put("path", scenarioJson.getString("path"));
+                scenario.put("lines", lines);
+                task.scenarios.add(scenario);
+            }
+        }
+
+        JSONArray testIJson = json.optJSONArray("testI");
+        for (int i = 0; testIJson != null && i < testIJson.length(); i++) {
+            task.testIFiles.add(testIJson.getString(i));
+        }
+        return task;
+    }
+
+    /**
+     * @return The card fields, owner, scenarios, TestI files and conflict rate, for the warm-start snapshot.
+     */
+    public JSONObject toSnapshotJson() {
+        JSONArray labels = new JSONArray();
+        for (String labelName : labelNames) {
+            labels.put(new JSONObject().put("name", labelName));
+        }
+        JSONObject card = new JSONObject()
+                .put("id", id)
+                .put("name", name)
+                .put("url", url)
+                .put("desc", description)
+                .put("idList", idList)
+                .put("idMembers", new JSONArray(memberIds))
+                .put("labels", labels);
+
+        JSONArray scenariosJson = new JSONArray();
+        for (LinkedHashMap<String, Serializable> scenario : scenarios) {
+            Object lines = scenario.get("lines");
+            scenariosJson.put(new JSONObject()
+                    .put("path", scenario.get("path"))
+                    .put("lines", lines instanceof List ? new JSONArray((List<?>) lines) : new JSONArray()));
+        }
+
+        return new JSONObject()
+                .put("card", card)
+                .put("personName", primaryPersonName)
+                .put("hasScenarios", hasScenarios)
+                .put("conflictRate", conflictRate)
+                .put("scenarios", scenariosJson)
+                .put("testI", new JSONArray(getTestIFiles()));
     }
 
-    private void setPrimaryPersonName(TrelloService trelloService) throws TrelloApiException, IOException, InterruptedException {
+    private void setPrimaryPersonName(MemberDirectory members) {
         if (this.memberIds != null && !this.memberIds.isEmpty()) {
-            // For simplicity, try to get the name of the first member.
-            // In a real scenario, you might want to fetch all members' details
-            // or have a specific way to identify the "owner".
-            try {
-                // Trello API doesn't have a direct "get member details by ID" in the free tier easily accessible
-                // without iterating through board members. We'll fetch all board members and find the match.
-                // This can be inefficient if called for every task. Consider caching board members.
-                JSONArray boardMembers = trelloService.getBoardMembers();
-                for (String memberId : this.memberIds) { // Iterate through assigned members
-                    for (int i = 0; i < boardMembers.length(); i++) {
-                        JSONObject member = boardMembers.getJSONObject(i);
-                        if (member.getString("id").equals(memberId)) {
-                            this.primaryPersonName = member.optString("fullName", member.optString("username", "Unknown Member"));
-                            return; // Found the first assigned member's name
-                        }
-                    }
-                }
-                if (this.primaryPersonName == null) {
-                    this.primaryPersonName = "Unassigned/Unknown";
+            // For simplicity, use the name of the first assigned member found on the board.
+            // The directory is built once per refresh, so this is a hash lookup, not a request.
+            for (String memberId : this.memberIds) { // Iterate through assigned members
+                String memberName = members.getName(memberId);
+                if (memberName != null) {
+                    this.primaryPersonName = memberName;
+                    return; // Found the first assigned member's name
                 }
-
-            } catch (JSONException e) {
-                System.err.println("Error parsing member data for card " + this.id + ": " + e.getMessage());
-                this.primaryPersonName = "Error fetching name";
             }
+            this.primaryPersonName = "Unassigned/Unknown";
         } else {
             this.primaryPersonName = "Unassigned";
         }
     }
 
-    private void loadScenariosFromTrelloCard(TrelloService trelloService, Project project) throws TrelloApiException, IOException, InterruptedException {
+    private void loadScenariosFromTrelloCard(TrelloService trelloService, TrelloService.CardDetails details) throws TrelloApiException, IOException, InterruptedException {
         // Check for the [TAITI] Scenarios comment
-        JSONObject taitiComment = trelloService.getTaitiCommentActionOnCard(this.id);
+        JSONObject taitiComment = details != null
+                ? trelloService.findTaitiCommentAction(this.id, details.getComments())
+                : trelloService.getTaitiCommentActionOnCard(this.id);
 
         if (taitiComment != null) {
-            // If comment exists, try to download the associated .csv file (TrelloService handles this logic)
-            File scenarioFile = trelloService.downloadTaitiFileFromCard(this.id);
-            if (scenarioFile != null && scenarioFile.exists()) {
+            // If comment exists, stream the associated .csv straight into the scenario structure
+            JSONArray attachments = details != null ? details.getAttachments() : trelloService.getCardAttachments(this.id);
+            ArrayList<LinkedHashMap<String, Serializable>> loadedScenarios =
+                    trelloService.loadTaitiScenariosFromAttachments(this.id, attachments);
+            if (loadedScenarios != null) {
                 this.hasScenarios = true;
-                TaitiTool taitiTool = new TaitiTool(project);
-                List<String[]> fileContent = taitiTool.readTaitiFile(scenarioFile); // Parses the CSV
-
-                for (String[] lineData : fileContent) {
-                    if (lineData.length >= 2) {
-                        String absolutePath = lineData[0];
-                        String numbersStringRaw = lineData[1];
-                        String[] numbersStringArray = numbersStringRaw.replaceAll("[\\[\\]]", "").split(",\\s*");
-
-                        ArrayList<Integer> numbersInt = new ArrayList<>();
-                        for (String s : numbersStringArray) {
-                            if (!s.trim().isEmpty()) {
-                                try {
-                                    numbersInt.add(Integer.parseInt(s.trim()));
-                                } catch (NumberFormatException e) {
-                                    System.err.println("Warning: Could not parse line number '" + s + "' for file " + absolutePath + " in card " + this.id);
-                                }
-                            }
-                        }
-                        if (!numbersInt.isEmpty()) {
-                            LinkedHashMap<String, Serializable> map = new LinkedHashMap<>(2);
-                            map.put("path", absolutePath);
-                            map.put("lines", numbersInt);
-                            this.scenarios.add(map);
-                        }
-                    }
-                }
-                // Clean up the downloaded temporary file
-                if (!scenarioFile.delete()) {
-                    System.err.println("Warning: Could not delete temporary scenario file: " + scenarioFile.getAbsolutePath());
-                }
+                this.scenarios.addAll(loadedScenarios);
             } else {
                 this.hasScenarios = false;
                 System.out.println("TAITI comment found on card " + this.id + ", but no scenario file (.csv) was downloaded or found.");
@@ -319,4 +367,14 @@ public class Task {
     public void setiTesk(PlannedTask iTesk) {
         this.iTesk = iTesk;
     }
+
+    /**
+     * @return Files in the task's TestI, from the computed PlannedTask or, for restored tasks, from the snapshot.
+     */
+    public Set<String> getTestIFiles() {
+        if (iTesk != null && iTesk.getItest() != null) {
+            return iTesk.getItest().getFiles();
+        }
+        return testIFiles;
+    }
 }
@@ -0,0 +1,114 @@
+package br.edu.ufape.taiti.service;
+
+import com.intellij.openapi.project.Project;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Último conjunto válido de tarefas de um projeto (cenários, arquivos do TestI e taxas de conflito),
+ * gravado em disco para que a lista de tarefas apareça imediatamente ao abrir a IDE,
+ * antes de o quadro do Trello ser consultado.
+ */
+public class TaskSnapshotStore {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path file;
+
+    public TaskSnapshotStore(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @param project Projeto do IntelliJ; o retrato fica no diretório de sistema da IDE, um arquivo por projeto.
+     */
+    public static TaskSnapshotStore forProject(Project project) {
+        return new TaskSnapshotStore(CacheFiles.systemDirectory("warm-start").resolve(project.getLocationHash() + ".json"));
+    }
+
+    /**
+     * Grava as tarefas classificadas. Falhas de escrita são apenas registradas.
+     *
+     * @param boardKey Identifica o quadro e o repositório das tarefas; retratos de outra configuração são ignorados na leitura.
+     */
+    public void save(String boardKey, List<Task> myUnstartedTasks, List<Task> otherPendingTasks) {
+        JSONObject json = new JSONObject()
+                .put("version", FORMAT_VERSION)
+                .put("boardKey", boardKey)
+                .put("myUnstartedTasks", toJson(myUnstartedTasks))
+                .put("otherPendingTasks", toJson(otherPendingTasks));
+        try {
+            Files.createDirectories(file.getParent());
+            Path tempFile = Files.createTempFile(file.getParent(), "snapshot", ".tmp");
+            Files.writeString(tempFile, json.toString(), StandardCharsets.UTF_8);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Aviso: não foi possível gravar o retrato das tarefas TAITI: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return O retrato gravado para a configuração, ou null se não houver um válido.
+     */
+    public Snapshot load(String boardKey) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            JSONObject json = new JSONObject(Files.readString(file, StandardCharsets.UTF_8));
+            if (json.optInt("version") != FORMAT_VERSION || !boardKey.equals(json.optString("boardKey"))) {
+                return null;
+            }
+            return new Snapshot(fromJson(json.getJSONArray("myUnstartedTasks")), fromJson(json.getJSONArray("otherPendingTasks")));
+        } catch (IOException | JSONException e) {
+            System.err.println("Aviso: retrato das tarefas TAITI inválido, ignorando " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static JSONArray toJson(List<Task> tasks) {
+        JSONArray array = new JSONArray();
+        for (Task task : tasks) {
+            array.put(task.toSnapshotJson());
+        }
+        return array;
+    }
+
+    private static List<Task> fromJson(JSONArray array) {
+        List<Task> tasks = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            tasks.add(Task.fromSnapshotJson(array.getJSONObject(i)));
+        }
+        return tasks;
+    }
+
+    /**
+     * Tarefas restauradas de um retrato gravado.
+     */
+    public static class Snapshot {
+        private final List<Task> myUnstartedTasks;
+        private final List<Task> otherPendingTasks;
+
+        Snapshot(List<Task> myUnstartedTasks, List<Task> otherPendingTasks) {
+            this.myUnstartedTasks = myUnstartedTasks;
+            this.otherPendingTasks = otherPendingTasks;
+        }
+
+        public List<Task> getMyUnstartedTasks() {
+            return myUnstartedTasks;
+        }
+
+        public List<Task> getOtherPendingTasks() {
+            return otherPendingTasks;
+        }
+    }
+}
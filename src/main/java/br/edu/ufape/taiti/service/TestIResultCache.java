@@ -0,0 +1,166 @@
+package br.edu.ufape.taiti.service;
+
+import br.ufpe.cin.tan.conflict.PlannedTask;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Cache dos resultados do TestI (PlannedTask) de cada cartão. A chave combina o repositório, o SHA do commit
+ * analisado, o cartão e um hash canônico dos seus cenários: enquanto nenhum deles mudar, o cartão não é reanalisado.
+ * Os resultados ficam em memória durante a sessão e, quando o PlannedTask é serializável, também em disco,
+ * com tamanho limitado e remoção dos menos usados primeiro.
+ */
+public class TestIResultCache {
+
+    private static final long DEFAULT_MAX_BYTES = 100L * 1024 * 1024;
+    private static final int MAX_MEMORY_ENTRIES = 1000;
+
+    private static TestIResultCache instance;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Map<String, PlannedTask> memory = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PlannedTask> eldest) {
+            return size() > MAX_MEMORY_ENTRIES;
+        }
+    };
+    private boolean warnedNotSerializable;
+
+    public TestIResultCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    public static synchronized TestIResultCache getInstance() {
+        if (instance == null) {
+            instance = new TestIResultCache(CacheFiles.systemDirectory("testi-cache"), DEFAULT_MAX_BYTES);
+        }
+        return instance;
+    }
+
+    /**
+     * Monta a chave de cache. A ordem dos cenários e das linhas não altera a chave.
+     *
+     * @param repository Repositório analisado (URL ou caminho local).
+     * @param revision   SHA do commit analisado.
+     * @param cardId     ID do cartão.
+     * @param scenarios  Cenários do cartão, no formato usado por TodoTask ("path" e "lines").
+     */
+    public static String key(String repository, String revision, String cardId, List<LinkedHashMap<String, Serializable>> scenarios) {
+        // Linhas agrupadas por arquivo, ambos ordenados, para que listas equivalentes gerem o mesmo texto
+        Map<String, TreeSet<String>> linesByPath = new TreeMap<>();
+        for (Map<String, Serializable> scenario : scenarios) {
+            TreeSet<String> lines = linesByPath.computeIfAbsent(String.valueOf(scenario.get("path")), k -> new TreeSet<>());
+            Object scenarioLines = scenario.get("lines");
+            if (scenarioLines instanceof Iterable) {
+                for (Object line : (Iterable<?>) scenarioLines) {
+                    String text = String.valueOf(line).trim();
+                    lines.add(text.matches("\\d+") ? String.format("%010d", Long.parseLong(text)) : text);
+                }
+            }
+        }
+        StringBuilder canonical = new StringBuilder()
+                .append(repository).append('\n')
+                .append(revision).append('\n')
+                .append(cardId).append('\n');
+        for (Map.Entry<String, TreeSet<String>> entry : linesByPath.entrySet()) {
+            canonical.append(entry.getKey()).append(':').append(String.join(",", entry.getValue())).append('\n');
+        }
+        return RepositoryRevision.sha256(canonical.toString());
+    }
+
+    /**
+     * @return O resultado guardado para a chave, ou null se o cartão precisa ser analisado.
+     */
+    public synchronized PlannedTask get(String key) {
+        PlannedTask plannedTask = memory.get(key);
+        if (plannedTask != null) {
+            return plannedTask;
+        }
+        Path file = fileFor(key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (InputStream in = Files.newInputStream(file); ObjectInputStream objects = new PluginObjectInputStream(in)) {
+            plannedTask = (PlannedTask) objects.readObject();
+            CacheFiles.markUsed(file);
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            // Ex: resultado gravado por outra versão da biblioteca de análise
+            System.err.println("Aviso: resultado de TestI em cache inválido, descartando " + file + ": " + e.getMessage());
+            CacheFiles.deleteQuietly(file);
+            return null;
+        }
+        memory.put(key, plannedTask);
+        return plannedTask;
+    }
+
+    /**
+     * Guarda o resultado em memória e, se o PlannedTask for serializável, em disco.
+     * Falhas de escrita são apenas registradas.
+     */
+    public synchronized void put(String key, PlannedTask plannedTask) {
+        if (plannedTask == null) {
+            return;
+        }
+        memory.put(key, plannedTask);
+        if (!(plannedTask instanceof Serializable)) {
+            if (!warnedNotSerializable) {
+                warnedNotSerializable = true;
+                System.err.println("Aviso: PlannedTask não é serializável; resultados de TestI ficam apenas em memória.");
+            }
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            Path file = fileFor(key);
+            Path tempFile = Files.createTempFile(directory, "testi", ".tmp");
+            try (OutputStream out = Files.newOutputStream(tempFile); ObjectOutputStream objects = new ObjectOutputStream(out)) {
+                objects.writeObject(plannedTask);
+            } catch (IOException e) {
+                CacheFiles.deleteQuietly(tempFile);
+                throw e;
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            CacheFiles.evict(directory, ".ser", maxBytes, Long.MAX_VALUE, file);
+        } catch (IOException e) {
+            System.err.println("Aviso: não foi possível gravar o resultado de TestI em cache: " + e.getMessage());
+        }
+    }
+
+    private Path fileFor(String key) {
+        return directory.resolve(key + ".ser");
+    }
+
+    /**
+     * Resolve as classes pelo class loader do plugin, onde estão as classes da biblioteca de análise.
+     */
+    private static class PluginObjectInputStream extends ObjectInputStream {
+        PluginObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            try {
+                return Class.forName(desc.getName(), false, TestIResultCache.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                return super.resolveClass(desc);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package br.edu.ufape.taiti.service;
+
+import br.ufpe.cin.tan.conflict.PlannedTask;
+import br.ufpe.cin.tan.exception.CloningRepositoryException;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Calcula o TestI (PlannedTask) de vários cartões ao mesmo tempo, em um pool do tamanho do número de CPUs.
+ * Só rodam em paralelo as análises do clone compartilhado do {@link RepositoryCache} e da cópia de trabalho local;
+ * quando a própria biblioteca de análise clona o repositório, {@link AnalysisTarget} as executa uma por vez.
+ * Resultados já conhecidos vêm do {@link TestIResultCache}. Registrado como applicationService no plugin.xml.
+ */
+public class TestIService implements Disposable {
+
+    private static final Logger LOG = Logger.getInstance(TestIService.class);
+
+    private static TestIService standalone; // Usado fora da IDE
+
+    private final ExecutorService executor;
+    private final TestIResultCache cache = TestIResultCache.getInstance();
+
+    public TestIService() {
+        // Um núcleo fica livre para a IDE
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        this.executor = Executors.newFixedThreadPool(threads, DaemonThreads.named("TAITI-TestI", Thread.NORM_PRIORITY - 1));
+    }
+
+    public static TestIService getInstance() {
+        Application application = ApplicationManager.getApplication();
+        if (application != null) {
+            return application.getService(TestIService.class);
+        }
+        synchronized (TestIService.class) {
+            if (standalone == null) {
+                standalone = new TestIService();
+            }
+            return standalone;
+        }
+    }
+
+    /**
+     * Agenda o cálculo do TestI de um cartão.
+     *
+     * @param target     Código analisado (repositório remoto ou cópia de trabalho local).
+     * @param revision   Revisão analisada, ou null se desconhecida (nesse caso o cache não é usado).
+     * @param cardId     ID do cartão.
+     * @param scenarios  Cenários do cartão, no formato usado por TodoTask ("path" e "lines").
+     * @param cancelled  Consultado antes de começar; se true, o cálculo é descartado e o resultado é null.
+     * @return Resultado com o PlannedTask e o tempo gasto; falhas chegam como CompletionException.
+     */
+    public CompletableFuture<Result> compute(AnalysisTarget target, String revision, String cardId,
+                                             ArrayList<LinkedHashMap<String, Serializable>> scenarios, BooleanSupplier cancelled) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (cancelled.getAsBoolean()) {
+                return null;
+            }
+            long start = System.nanoTime();
+            String cacheKey = revision != null ? TestIResultCache.key(target.getKey(), revision, cardId, scenarios) : null;
+            PlannedTask plannedTask = cacheKey != null ? cache.get(cacheKey) : null;
+            boolean cached = plannedTask != null;
+            if (!cached) {
+                try {
+                    plannedTask = target.analyze(revision, AnalysisTarget.taskIdFor(cardId), scenarios);
+                } catch (CloningRepositoryException e) {
+                    throw new CompletionException(e);
+                }
+                if (cacheKey != null) {
+                    cache.put(cacheKey, plannedTask);
+                }
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (!cached) {
+                LOG.debug("TestI do cartão " + cardId + " calculado em " + millis + " ms");
+            }
+            return new Result(plannedTask, millis, cached);
+        }, executor);
+    }
+
+    @Override
+    public void dispose() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * TestI calculado para um cartão.
+     */
+    public static class Result {
+        private final PlannedTask plannedTask;
+        private final long millis;
+        private final boolean cached;
+
+        Result(PlannedTask plannedTask, long millis, boolean cached) {
+            this.plannedTask = plannedTask;
+            this.millis = millis;
+            this.cached = cached;
+        }
+
+        public PlannedTask getPlannedTask() {
+            return plannedTask;
+        }
+
+        /**
+         * @return Tempo gasto no cálculo (ou na leitura do cache), sem contar a espera na fila.
+         */
+        public long getMillis() {
+            return millis;
+        }
+
+        public boolean isCached() {
+            return cached;
+        }
+    }
+}
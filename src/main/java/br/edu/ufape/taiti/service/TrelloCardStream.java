@@ -0,0 +1,104 @@
+package br.edu.ufape.taiti.service;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Leitura em streaming de um array JSON de cartões do Trello.
+ * Cada cartão é convertido assim que seus caracteres chegam, sem montar o array inteiro em memória;
+ * quem consome pode começar a processar os primeiros cartões enquanto o restante ainda está sendo baixado.
+ *
+ * Erros de leitura ou de formato durante a iteração são lançados como {@link JSONException}.
+ */
+public class TrelloCardStream implements Iterator<JSONObject>, Closeable {
+
+    private final Reader reader;
+    private final JSONTokener tokener;
+    private final Predicate<JSONObject> filter;
+    private JSONObject nextCard; // Já lido e aceito pelo filtro, ainda não entregue
+    private boolean finished;
+
+    /**
+     * @param filter Cartões recusados são descartados durante a leitura.
+     */
+    public TrelloCardStream(Reader reader, Predicate<JSONObject> filter) {
+        this.reader = reader;
+        this.tokener = new JSONTokener(reader);
+        this.filter = filter;
+        if (tokener.nextClean() != '[') {
+            throw tokener.syntaxError("A resposta de cartões deveria ser um array JSON");
+        }
+        if (tokener.nextClean() == ']') {
+            finished = true;
+        } else {
+            tokener.back();
+        }
+    }
+
+    /**
+     * @return Stream sem cartões, para consultas que não precisam ir ao Trello.
+     */
+    public static TrelloCardStream empty() {
+        return new TrelloCardStream(new StringReader("[]"), card -> true);
+    }
+
+    /**
+     * Pode bloquear até o próximo cartão aceito chegar.
+     */
+    @Override
+    public boolean hasNext() {
+        while (nextCard == null && !finished) {
+            JSONObject card = readCard();
+            if (filter.test(card)) {
+                nextCard = card;
+            }
+        }
+        return nextCard != null;
+    }
+
+    @Override
+    public JSONObject next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        JSONObject card = nextCard;
+        nextCard = null;
+        return card;
+    }
+
+    private JSONObject readCard() {
+        Object value = tokener.nextValue();
+        if (!(value instanceof JSONObject)) {
+            throw tokener.syntaxError("Elemento inesperado no array de cartões: " + value);
+        }
+        switch (tokener.nextClean()) {
+            case ',':
+                break;
+            case ']':
+                finished = true;
+                break;
+            default:
+                throw tokener.syntaxError("Esperado ',' ou ']' após o cartão");
+        }
+        return (JSONObject) value;
+    }
+
+    /**
+     * Encerra a leitura; o restante da resposta é descartado sem ser baixado.
+     */
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        nextCard = null;
+        reader.close();
+    }
+}
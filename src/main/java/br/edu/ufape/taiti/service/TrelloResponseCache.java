@@ -0,0 +1,292 @@
+package br.edu.ufape.taiti.service;
+
+import com.intellij.openapi.project.Project;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import javax.net.ssl.SSLSession;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Cache persistente em disco das respostas GET da API do Trello.
+ * Respostas com ETag ou Last-Modified são revalidadas com requisições condicionais;
+ * as demais são reutilizadas apenas durante um curto prazo de validade.
+ * A memória guarda só as entradas usadas mais recentemente e o disco tem tamanho e idade limitados.
+ * Consultas que não se repetem (feed de mudanças com since=, /batch) não são guardadas.
+ */
+public class TrelloResponseCache {
+
+    private static final Duration DEFAULT_TTL = Duration.ofSeconds(30);
+    private static final int MAX_MEMORY_ENTRIES = 500;
+    private static final long MAX_DISK_BYTES = 50L * 1024 * 1024;
+    private static final long MAX_UNUSED_MILLIS = TimeUnit.DAYS.toMillis(7);
+    private static final int STORES_BETWEEN_EVICTIONS = 100;
+    // Um cache por diretório: todas as instâncias de TrelloService do projeto veem as mesmas entradas
+    // e as invalidações feitas por qualquer uma delas
+    private static final Map<Path, TrelloResponseCache> INSTANCES = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    private final Duration ttl;
+    private final Map<String, Entry> memory = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_MEMORY_ENTRIES;
+        }
+    });
+    private final AtomicInteger storesSinceEviction = new AtomicInteger();
+
+    public TrelloResponseCache(Path directory, Duration ttl) {
+        this.directory = directory;
+        this.ttl = ttl;
+    }
+
+    /**
+     * @return Se a resposta da URI pode ser guardada. O feed de mudanças (since=) muda de URI a cada consulta
+     * e cada /batch combina rotas diferentes, então guardá-los só ocuparia espaço.
+     */
+    public static boolean isCacheable(URI uri) {
+        String path = uri.getPath();
+        String query = uri.getRawQuery();
+        return (path == null || !path.endsWith("/batch"))
+                && (query == null || !(query.startsWith("since=") || query.contains("&since=")));
+    }
+
+    /**
+     * Retorna o cache do projeto, no diretório de sistema da IDE. Chamadas para o mesmo projeto
+     * recebem a mesma instância.
+     *
+     * @param project Projeto do IntelliJ; se nulo, usa o diretório temporário do sistema.
+     */
+    public static TrelloResponseCache forProject(Project project) {
+        Path directory = project != null
+                ? CacheFiles.systemDirectory("http-cache").resolve(project.getLocationHash())
+                : CacheFiles.systemDirectory("http-cache");
+        return INSTANCES.computeIfAbsent(directory, k -> {
+            TrelloResponseCache cache = new TrelloResponseCache(k, DEFAULT_TTL);
+            // Remove as entradas que ficaram de sessões anteriores sem uso
+            CacheFiles.evict(k, ".json", MAX_DISK_BYTES, MAX_UNUSED_MILLIS, null);
+            return cache;
+        });
+    }
+
+    /**
+     * @return A entrada guardada para a URI, ou null se não houver.
+     */
+    public Entry get(URI uri) {
+        if (!isCacheable(uri)) {
+            return null;
+        }
+        String key = keyFor(uri);
+        Entry entry = memory.get(key);
+        if (entry != null) {
+            return entry;
+        }
+        Path file = directory.resolve(key + ".json");
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            entry = Entry.fromJson(new JSONObject(Files.readString(file, StandardCharsets.UTF_8)));
+            CacheFiles.markUsed(file);
+            memory.put(key, entry);
+            return entry;
+        } catch (IOException | JSONException e) {
+            System.err.println("Aviso: entrada de cache inválida, descartando " + file + ": " + e.getMessage());
+            CacheFiles.deleteQuietly(file);
+            return null;
+        }
+    }
+
+    /**
+     * Guarda uma resposta 200 de um GET. Outras respostas e URIs que não são guardadas são ignoradas.
+     */
+    public void put(URI uri, HttpResponse<String> response) {
+        if (response.statusCode() != 200 || !isCacheable(uri)) {
+            return;
+        }
+        Entry entry = new Entry(
+                response.headers().firstValue("ETag").orElse(null),
+                response.headers().firstValue("Last-Modified").orElse(null),
+                System.currentTimeMillis(),
+                response.body());
+        store(keyFor(uri), entry);
+    }
+
+    /**
+     * Renova a data de armazenamento de uma entrada após uma revalidação com resposta 304.
+     */
+    public void touch(URI uri, Entry entry) {
+        if (!isCacheable(uri)) {
+            return;
+        }
+        store(keyFor(uri), new Entry(entry.etag, entry.lastModified, System.currentTimeMillis(), entry.body));
+    }
+
+    /**
+     * Descarta todas as entradas. Chamado após escritas, que podem alterar qualquer leitura guardada.
+     */
+    public void invalidateAll() {
+        memory.clear();
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(CacheFiles::deleteQuietly);
+        } catch (IOException e) {
+            System.err.println("Aviso: não foi possível limpar o cache de respostas do Trello: " + e.getMessage());
+        }
+    }
+
+    public boolean isFresh(Entry entry) {
+        // Entradas com validadores sempre passam por revalidação condicional
+        return !entry.hasValidators() && System.currentTimeMillis() - entry.storedAt < ttl.toMillis();
+    }
+
+    private void store(String key, Entry entry) {
+        memory.put(key, entry);
+        try {
+            Files.createDirectories(directory);
+            Path tempFile = Files.createTempFile(directory, key, ".tmp");
+            Files.writeString(tempFile, entry.toJson().toString(), StandardCharsets.UTF_8);
+            Path file = directory.resolve(key + ".json");
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            // Listar o diretório a cada gravação custaria mais do que a própria requisição
+            if (storesSinceEviction.incrementAndGet() >= STORES_BETWEEN_EVICTIONS) {
+                storesSinceEviction.set(0);
+                CacheFiles.evict(directory, ".json", MAX_DISK_BYTES, MAX_UNUSED_MILLIS, file);
+            }
+        } catch (IOException e) {
+            System.err.println("Aviso: não foi possível gravar o cache de respostas do Trello: " + e.getMessage());
+        }
+    }
+
+    // A URI contém a chave e o token da API, por isso o nome do arquivo é apenas o hash dela
+    private static String keyFor(URI uri) {
+        return RepositoryRevision.sha256(uri.toString());
+    }
+
+    /**
+     * Resposta guardada no cache, com seus validadores.
+     */
+    public static class Entry {
+        private final String etag;
+        private final String lastModified;
+        private final long storedAt;
+        private final String body;
+
+        Entry(String etag, String lastModified, long storedAt, String body) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.storedAt = storedAt;
+            this.body = body;
+        }
+
+        public boolean hasValidators() {
+            return etag != null || lastModified != null;
+        }
+
+        /**
+         * @return Cópia da requisição com If-None-Match / If-Modified-Since.
+         */
+        public HttpRequest conditional(HttpRequest request) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(request, (name, value) -> true);
+            if (etag != null) {
+                builder.header("If-None-Match", etag);
+            }
+            if (lastModified != null) {
+                builder.header("If-Modified-Since", lastModified);
+            }
+            return builder.build();
+        }
+
+        /**
+         * @return Resposta 200 sintética com o corpo guardado.
+         */
+        public HttpResponse<String> toResponse(HttpRequest request) {
+            return new CachedResponse(request, body);
+        }
+
+        private JSONObject toJson() {
+            JSONObject json = new JSONObject();
+            json.put("etag", etag);
+            json.put("lastModified", lastModified);
+            json.put("storedAt", storedAt);
+            json.put("body", body);
+            return json;
+        }
+
+        private static Entry fromJson(JSONObject json) {
+            return new Entry(json.optString("etag", null), json.optString("lastModified", null),
+                    json.getLong("storedAt"), json.getString("body"));
+        }
+    }
+
+    private static class CachedResponse implements HttpResponse<String> {
+        private final HttpRequest request;
+        private final String body;
+
+        CachedResponse(HttpRequest request, String body) {
+            this.request = request;
+            this.body = body;
+        }
+
+        @Override
+        public int statusCode() {
+            return 200;
+        }
+
+        @Override
+        public HttpRequest request() {
+            return request;
+        }
+
+        @Override
+        public Optional<HttpResponse<String>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return HttpHeaders.of(Map.of("Content-Type", List.of("application/json")), (name, value) -> true);
+        }
+
+        @Override
+        public String body() {
+            return body;
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return request.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}
@@ -1,16 +1,22 @@
 package br.edu.ufape.taiti.service;
 
+import br.edu.ufape.taiti.tool.TaitiTool;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.project.ProjectUtil;
-import com.intellij.openapi.vfs.VirtualFile;
 import okhttp3.*;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.json.JSONException;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Serializable;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLEncoder;
@@ -20,10 +26,24 @@ import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Classe responsável por fazer todas as requisições à API do Trello.
@@ -31,7 +51,22 @@ import java.util.List;
  */
 public class TrelloService {
     private static final String TRELLO_API_URL = "https://api.trello.com/1";
-    private static final String TAITI_MSG = "[TAITI] Scenarios";
+    static final String TAITI_MSG = "[TAITI] Scenarios";
+    private static final int TRELLO_BATCH_LIMIT = 10; // Máximo de rotas aceitas pelo endpoint /batch
+    private static final int SNAPSHOT_ACTIONS_LIMIT = 1000; // Máximo de ações aninhadas aceito pelo Trello
+    public static final int BOARD_ACTIONS_LIMIT = 1000; // Máximo de ações por página em /boards/{id}/actions
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 16; // Requisições assíncronas simultâneas
+    // Limites de taxa documentados pelo Trello
+    private static final int KEY_REQUESTS_PER_WINDOW = 300;
+    private static final int TOKEN_REQUESTS_PER_WINDOW = 100;
+    private static final Duration RATE_LIMIT_WINDOW = Duration.ofSeconds(10);
+    private static final int MAX_RATE_LIMIT_RETRIES = 5;
+    // Perfis de campos: cada consulta pede apenas o que Task e Stories realmente leem
+    private static final String CARD_FIELDS = "id,name,idList,idMembers,desc,url,labels";
+    private static final String ATTACHMENT_FIELDS = "id,name,fileName,url";
+    private static final String COMMENT_ACTION_FIELDS = "id,type,date,data";
+    private static final String MEMBER_FIELDS = "id,fullName,username";
+    private static final String LIST_FIELDS = "id,name";
 
     private final String apiKey;
     private final String serverToken;
@@ -39,6 +74,16 @@ public class TrelloService {
     private final Project project; // Objeto Project do IntelliJ
     private final HttpClient httpClient;
     private final OkHttpClient okHttpClient;
+    private final Executor asyncExecutor; // Threads do transporte: continuações da API assíncrona não usam o pool comum
+    private final AsyncRequestLimiter asyncLimiter;
+    private final RateLimitScheduler rateLimiter;
+    private final TrelloResponseCache responseCache;
+    private final TaitiAttachmentCache attachmentCache = TaitiAttachmentCache.getInstance();
+    // GETs idênticos em andamento, compartilhados entre instâncias; a URI inclui as credenciais
+    private static final Map<URI, InFlightGet> IN_FLIGHT_GETS = new ConcurrentHashMap<>();
+    // Incrementada a cada escrita: GETs iniciados antes dela não são compartilhados nem guardados no cache.
+    // Também serve de monitor para que a escrita e o armazenamento de uma resposta não se intercalem
+    private static final AtomicLong WRITE_GENERATION = new AtomicLong();
 
     /**
      * Construtor da classe TrelloService.
@@ -59,20 +104,50 @@ public class TrelloService {
         this.serverToken = serverToken;
         this.boardID = extractBoardIDFromURL(boardIDOrURL); // Pode lançar IllegalArgumentException
         this.project = project; // Pode ser nulo se não estiver em um contexto de projeto IntelliJ
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(20)) // Aumentado timeout
-                .build();
-        this.okHttpClient = new OkHttpClient.Builder()
-                .connectTimeout(Duration.ofSeconds(45)) // Aumentado timeout
-                .writeTimeout(Duration.ofSeconds(45))  // Aumentado timeout
-                .readTimeout(Duration.ofSeconds(45))   // Aumentado timeout
-                .build();
+        this.rateLimiter = new RateLimitScheduler(apiKey, serverToken);
+        this.responseCache = TrelloResponseCache.forProject(project);
+        // Clientes compartilhados pela aplicação inteira: reaproveitam conexões e threads entre instâncias
+        this.httpClient = HttpTransport.getInstance().getHttpClient();
+        this.okHttpClient = HttpTransport.getInstance().getOkHttpClient();
+        this.asyncExecutor = HttpTransport.getInstance().getExecutor();
+        this.asyncLimiter = new AsyncRequestLimiter(DEFAULT_MAX_CONCURRENT_REQUESTS, asyncExecutor);
+    }
+
+    /**
+     * Define quantas requisições da API assíncrona podem ficar em andamento ao mesmo tempo.
+     * As excedentes aguardam em fila, sem ocupar threads.
+     *
+     * @param maxConcurrentRequests Limite de requisições simultâneas (mínimo 1).
+     */
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("O limite de requisições simultâneas deve ser pelo menos 1.");
+        }
+        asyncLimiter.setMaxInFlight(maxConcurrentRequests);
+    }
+
+    public int getMaxConcurrentRequests() {
+        return asyncLimiter.getMaxInFlight();
     }
 
     private String buildAuthQueryString(boolean firstParam) {
         return (firstParam ? "?" : "&") + "key=" + this.apiKey + "&token=" + this.serverToken;
     }
 
+    // Endpoints compartilhados entre as versões síncrona e assíncrona das consultas
+    private String cardsOnBoardEndpoint() {
+        return "/boards/" + this.boardID + "/cards/open" + buildAuthQueryString(true) + "&fields=" + CARD_FIELDS;
+    }
+
+    private String cardAttachmentsEndpoint(String cardID) {
+        return "/cards/" + cardID + "/attachments" + buildAuthQueryString(true) + "&fields=" + ATTACHMENT_FIELDS;
+    }
+
+    private String cardCommentsEndpoint(String cardID) {
+        return "/cards/" + cardID + "/actions" + buildAuthQueryString(true) + "&filter=commentCard"
+                + "&fields=" + COMMENT_ACTION_FIELDS + "&memberCreator=false";
+    }
+
     private String extractBoardIDFromURL(String boardURLOrID) {
         if (boardURLOrID == null || boardURLOrID.trim().isEmpty()) {
             throw new IllegalArgumentException("Board URL ou ID não pode ser nulo ou vazio.");
@@ -106,7 +181,7 @@ public class TrelloService {
             throw new IllegalArgumentException("O ID da lista não pode ser nulo ou vazio.");
         }
 
-        String endpoint = "/lists/" + listId + buildAuthQueryString(true);
+        String endpoint = "/lists/" + listId + buildAuthQueryString(true) + "&fields=" + LIST_FIELDS;
         HttpResponse<String> response = makeApiRequest("GET", endpoint, null);
 
         if (response.statusCode() == 200) {
@@ -121,9 +196,9 @@ public class TrelloService {
     }
 
     /**
-     * Busca todos os cartões em um quadro (board) específico do Trello.
+     * Busca os cartões abertos de um quadro (board) específico do Trello.
      *
-     * @return JSONArray contendo todos os cartões do quadro.
+     * @return JSONArray contendo os cartões abertos do quadro.
      * @throws TrelloApiException Se ocorrer um erro na API.
      * @throws IOException Se ocorrer um erro de I/O.
      * @throws InterruptedException Se a operação for interrompida.
@@ -132,19 +207,327 @@ public class TrelloService {
         if (this.boardID == null || this.boardID.trim().isEmpty()) {
             throw new IllegalStateException("ID do Quadro (BoardID) não foi configurado ou é inválido.");
         }
-        // Endpoint para buscar todos os cartões de um quadro
-        // Você pode adicionar mais parâmetros como fields=name,idList,idMembers se quiser limitar os dados retornados
-        String endpoint = "/boards/" + this.boardID + "/cards" + buildAuthQueryString(true) + "&fields=id,name,idList,idMembers,desc,url,labels,due,closed";
+        return getCards(cardsOnBoardEndpoint(), "cartões do quadro");
+    }
+
+    /**
+     * Abre a leitura em streaming dos cartões abertos de uma lista, já com seus anexos.
+     * Usado para enumerar apenas as listas relevantes do quadro em vez do quadro inteiro.
+     * O chamador deve fechar o stream.
+     *
+     * @param listID ID da lista.
+     * @return Iterador sobre os cartões abertos da lista, entregues conforme chegam.
+     * @throws TrelloApiException Se a API responder com erro.
+     * @throws IOException Se ocorrer um erro de I/O.
+     * @throws InterruptedException Se a operação for interrompida.
+     */
+    public TrelloCardStream streamOpenCardsInList(String listID) throws TrelloApiException, IOException, InterruptedException {
+        if (listID == null || listID.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID da Lista não pode ser nulo ou vazio.");
+        }
+        String endpoint = "/lists/" + listID + "/cards" + buildAuthQueryString(true) + "&filter=open"
+                + "&fields=" + CARD_FIELDS + "&attachments=true&attachment_fields=" + ATTACHMENT_FIELDS;
+        return streamCards(endpoint, "cartões da lista", card -> true);
+    }
+
+    /**
+     * Abre a leitura em streaming dos cartões abertos deste quadro atribuídos ao usuário autenticado
+     * (/boards/{id}/members/me/cards), mantendo apenas os que estão nas listas informadas.
+     * Evita enumerar o quadro inteiro para achar as tarefas do usuário. O chamador deve fechar o stream.
+     *
+     * @param listIDs IDs das listas aceitas (ex: listas de tarefas não iniciadas deste quadro).
+     * @return Iterador sobre os cartões do usuário nessas listas, entregues conforme chegam.
+     * @throws TrelloApiException Se a API responder com erro.
+     * @throws IOException Se ocorrer um erro de I/O.
+     * @throws InterruptedException Se a operação for interrompida.
+     */
+    public TrelloCardStream streamMyOpenCardsInLists(Collection<String> listIDs) throws TrelloApiException, IOException, InterruptedException {
+        if (listIDs.isEmpty()) {
+            return TrelloCardStream.empty();
+        }
+        if (this.boardID == null || this.boardID.trim().isEmpty()) {
+            throw new IllegalStateException("ID do Quadro (BoardID) não foi configurado ou é inválido.");
+        }
+        String endpoint = "/boards/" + this.boardID + "/members/me/cards" + buildAuthQueryString(true) + "&filter=open"
+                + "&fields=" + CARD_FIELDS + "&attachments=true&attachment_fields=" + ATTACHMENT_FIELDS;
+        return streamCards(endpoint, "cartões do usuário", card -> listIDs.contains(card.optString("idList")));
+    }
+
+    /**
+     * Lê uma coleção de cartões em streaming, sem montar a resposta inteira em memória.
+     * Esta leitura não passa pelo cache de respostas: o corpo não é guardado em lugar nenhum.
+     */
+    private TrelloCardStream streamCards(String endpoint, String description, Predicate<JSONObject> filter) throws TrelloApiException, IOException, InterruptedException {
+        HttpResponse<InputStream> response = sendStreamingWithRateLimit(buildApiRequest("GET", endpoint, null));
+        InputStream body = HttpTransport.decodedBody(response);
+        if (response.statusCode() != 200) {
+            try (body) {
+                throw new TrelloApiException("Falha ao buscar " + description + ": " + new String(body.readAllBytes(), StandardCharsets.UTF_8), response.statusCode());
+            }
+        }
+        try {
+            return new TrelloCardStream(new InputStreamReader(body, StandardCharsets.UTF_8), filter);
+        } catch (JSONException e) {
+            body.close();
+            throw new TrelloApiException("Erro ao parsear JSON da resposta para " + description + ": " + e.getMessage(), response.statusCode(), e);
+        }
+    }
+
+    /**
+     * Lê uma coleção de cartões em uma única requisição. Estas rotas devolvem a coleção inteira;
+     * o Trello não documenta limit/before para elas, e um limite poderia descartar cartões em silêncio.
+     */
+    private JSONArray getCards(String endpoint, String description) throws TrelloApiException, IOException, InterruptedException {
         HttpResponse<String> response = makeApiRequest("GET", endpoint, null);
+        if (response.statusCode() != 200) {
+            throw new TrelloApiException("Falha ao buscar " + description + ": " + response.body(), response.statusCode());
+        }
+        try {
+            return new JSONArray(response.body());
+        } catch (JSONException e) {
+            throw new TrelloApiException("Erro ao parsear JSON da resposta para " + description + ": " + e.getMessage(), response.statusCode(), e);
+        }
+    }
+
+    /**
+     * Busca o retrato do quadro em uma única requisição, usando os parâmetros de recursos aninhados do Trello:
+     * listas abertas, membros e ações de comentário. Os cartões não vêm no retrato; são lidos por lista
+     * ({@link #streamOpenCardsInList}) ou por usuário ({@link #streamMyOpenCardsInLists}).
+     *
+     * @return Retrato em memória do quadro.
+     * @throws TrelloApiException Se ocorrer um erro na API.
+     * @throws IOException Se ocorrer um erro de I/O.
+     * @throws InterruptedException Se a operação for interrompida.
+     */
+    public BoardSnapshot getBoardSnapshot() throws TrelloApiException, IOException, InterruptedException {
+        if (this.boardID == null || this.boardID.trim().isEmpty()) {
+            throw new IllegalStateException("ID do Quadro (BoardID) não foi configurado ou é inválido.");
+        }
+        String endpoint = "/boards/" + this.boardID + buildAuthQueryString(true)
+                + "&fields=id,name"
+                + "&cards=none"
+                + "&lists=open&list_fields=" + LIST_FIELDS
+                + "&members=all&member_fields=" + MEMBER_FIELDS
+                + "&actions=commentCard&action_fields=" + COMMENT_ACTION_FIELDS + "&action_memberCreator=false"
+                + "&actions_limit=" + SNAPSHOT_ACTIONS_LIMIT;
+        HttpResponse<String> response = makeApiRequest("GET", endpoint, null);
+
+        if (response.statusCode() == 200) {
+            try {
+                return new BoardSnapshot(new JSONObject(response.body()), SNAPSHOT_ACTIONS_LIMIT);
+            } catch (JSONException e) {
+                throw new TrelloApiException("Erro ao parsear JSON da resposta para o retrato do quadro: " + e.getMessage(), response.statusCode(), e);
+            }
+        } else {
+            throw new TrelloApiException("Falha ao buscar o retrato do quadro: " + response.body(), response.statusCode());
+        }
+    }
+
+    /**
+     * Agrupa várias requisições GET em chamadas ao endpoint /batch do Trello.
+     * As rotas são enviadas em grupos de no máximo 10 e as respostas são devolvidas na mesma ordem das rotas.
+     *
+     * @param routes Rotas da API sem o prefixo de versão e sem autenticação (ex: "/cards/ID/attachments").
+     * @return Lista com o corpo (JSONObject ou JSONArray) de cada rota; null nas posições cuja rota falhou.
+     * @throws TrelloApiException Se a chamada ao /batch falhar.
+     * @throws IOException Se ocorrer um erro de I/O.
+     * @throws InterruptedException Se a operação for interrompida.
+     */
+    public List<Object> batchGet(List<String> routes) throws TrelloApiException, IOException, InterruptedException {
+        return batchGet(routes, true);
+    }
+
+    /**
+     * @param useFreshCache Se false, ignora o prazo de validade do cache (para rotas que sabidamente mudaram).
+     */
+    private List<Object> batchGet(List<String> routes, boolean useFreshCache) throws TrelloApiException, IOException, InterruptedException {
+        List<Object> results = new ArrayList<>(routes.size());
+        for (int start = 0; start < routes.size(); start += TRELLO_BATCH_LIMIT) {
+            List<String> chunk = routes.subList(start, Math.min(start + TRELLO_BATCH_LIMIT, routes.size()));
+            StringBuilder urls = new StringBuilder();
+            for (String route : chunk) {
+                if (urls.length() > 0) {
+                    urls.append(',');
+                }
+                urls.append(URLEncoder.encode(route, StandardCharsets.UTF_8));
+            }
+
+            String endpoint = "/batch" + buildAuthQueryString(true) + "&urls=" + urls;
+            // Cada rota do lote conta como uma requisição nos limites do Trello
+            HttpResponse<String> response = sendApiRequest(buildApiRequest("GET", endpoint, null), chunk.size(), useFreshCache);
+            if (response.statusCode() != 200) {
+                throw new TrelloApiException("Falha ao executar requisição em lote: " + response.body(), response.statusCode());
+            }
+
+            try {
+                JSONArray responses = new JSONArray(response.body());
+                for (int i = 0; i < chunk.size(); i++) {
+                    JSONObject entry = responses.optJSONObject(i);
+                    if (entry != null && entry.has("200")) {
+                        results.add(entry.get("200"));
+                    } else {
+                        // Rotas com erro vêm como {"name": ..., "message": ..., "statusCode": ...}
+                        System.err.println("Aviso: rota do lote falhou (" + chunk.get(i) + "): " + entry);
+                        results.add(null);
+                    }
+                }
+            } catch (JSONException e) {
+                throw new TrelloApiException("Erro ao parsear JSON da resposta em lote: " + e.getMessage(), response.statusCode(), e);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Busca em lote os comentários e anexos de vários cartões.
+     * Cartões cuja rota falhou no lote ficam fora do mapa, e o chamador deve buscá-los individualmente.
+     * A resposta é sempre revalidada: só se pedem detalhes que não estavam no retrato ou de cartões que mudaram.
+     *
+     * @param cardIds IDs dos cartões.
+     * @return Mapa do ID do cartão para seus comentários e anexos.
+     * @throws TrelloApiException Se ocorrer um erro na API.
+     * @throws IOException Se ocorrer um erro de I/O.
+     * @throws InterruptedException Se a operação for interrompida.
+     */
+    public Map<String, CardDetails> getCardDetailsBatch(List<String> cardIds) throws TrelloApiException, IOException, InterruptedException {
+        List<String> routes = new ArrayList<>(cardIds.size() * 2);
+        for (String cardId : cardIds) {
+            routes.add("/cards/" + cardId + "/actions?filter=commentCard&fields=" + COMMENT_ACTION_FIELDS + "&memberCreator=false");
+            routes.add("/cards/" + cardId + "/attachments?fields=" + ATTACHMENT_FIELDS);
+        }
+
+        List<Object> results = batchGet(routes, false);
+        Map<String, CardDetails> detailsByCard = new HashMap<>();
+        for (int i = 0; i < cardIds.size(); i++) {
+            Object comments = results.get(i * 2);
+            Object attachments = results.get(i * 2 + 1);
+            if (comments instanceof JSONArray && attachments instanceof JSONArray) {
+                detailsByCard.put(cardIds.get(i), new CardDetails((JSONArray) comments, (JSONArray) attachments));
+            }
+        }
+        return detailsByCard;
+    }
+
+    /**
+     * Busca em lote vários cartões, com seus anexos e o campo closed.
+     * Cartões excluídos (ou cuja rota falhou no lote) ficam fora do mapa. Usado com cartões que acabaram de mudar,
+     * por isso a resposta é sempre revalidada.
+     *
+     * @param cardIds IDs dos cartões.
+     * @return Mapa do ID do cartão para o cartão.
+     * @throws TrelloApiException Se ocorrer um erro na API.
+     * @throws IOException Se ocorrer um erro de I/O.
+     * @throws InterruptedException Se a operação for interrompida.
+     */
+    public Map<String, JSONObject> getCardsBatch(List<String> cardIds) throws TrelloApiException, IOException, InterruptedException {
+        List<String> routes = new ArrayList<>(cardIds.size());
+        for (String cardId : cardIds) {
+            routes.add("/cards/" + cardId + "?fields=" + CARD_FIELDS + ",closed&attachments=true&attachment_fields=" + ATTACHMENT_FIELDS);
+        }
+
+        List<Object> results = batchGet(routes, false);
+        Map<String, JSONObject> cardsById = new HashMap<>();
+        for (int i = 0; i < cardIds.size(); i++) {
+            if (results.get(i) instanceof JSONObject) {
+                cardsById.put(cardIds.get(i), (JSONObject) results.get(i));
+            }
+        }
+        return cardsById;
+    }
+
+    /**
+     * Consulta barata para detectar mudanças no quadro: devolve apenas a data da última atividade.
+     *
+     * @return Valor de dateLastActivity do quadro (pode ser null em quadros sem atividade).
+     * @throws TrelloApiException Se ocorrer um erro na API.
+     * @throws IOException Se ocorrer um erro de I/O.
+     * @throws InterruptedException Se a operação for interrompida.
+     */
+    public String getBoardLastActivity() throws TrelloApiException, IOException, InterruptedException {
+        if (this.boardID == null || this.boardID.trim().isEmpty()) {
+            throw new IllegalStateException("ID do Quadro (BoardID) não foi configurado ou é inválido.");
+        }
+        String endpoint = "/boards/" + this.boardID + buildAuthQueryString(true) + "&fields=dateLastActivity";
+        HttpResponse<String> response = makeRevalidatedGet(endpoint);
+
+        if (response.statusCode() == 200) {
+            try {
+                return new JSONObject(response.body()).optString("dateLastActivity", null);
+            } catch (JSONException e) {
+                throw new TrelloApiException("Erro ao parsear JSON da resposta para atividade do quadro: " + e.getMessage(), response.statusCode(), e);
+            }
+        } else {
+            throw new TrelloApiException("Falha ao buscar atividade do quadro: " + response.body(), response.statusCode());
+        }
+    }
+
+    /**
+     * Busca o ID da ação mais recente do quadro, usado como marco para {@link #getBoardActionsSince}.
+     *
+     * @return ID da ação mais recente, ou null se o quadro não tiver ações.
+     * @throws TrelloApiException Se ocorrer um erro na API.
+     * @throws IOException Se ocorrer um erro de I/O.
+     * @throws InterruptedException Se a operação for interrompida.
+     */
+    public String getLatestBoardActionId() throws TrelloApiException, IOException, InterruptedException {
+        JSONArray actions = getBoardActions("&limit=1&fields=id");
+        return actions.length() > 0 ? actions.getJSONObject(0).getString("id") : null;
+    }
+
+    /**
+     * Busca as ações do quadro posteriores a uma ação conhecida, da mais recente para a mais antiga.
+     * Se o resultado tiver {@link #BOARD_ACTIONS_LIMIT} ações, ações mais antigas podem ter ficado de fora.
+     *
+     * @param sinceActionId ID da última ação já processada.
+     * @return Ações posteriores (vazio se o quadro não mudou).
+     * @throws TrelloApiException Se ocorrer um erro na API.
+     * @throws IOException Se ocorrer um erro de I/O.
+     * @throws InterruptedException Se a operação for interrompida.
+     */
+    public JSONArray getBoardActionsSince(String sinceActionId) throws TrelloApiException, IOException, InterruptedException {
+        if (sinceActionId == null || sinceActionId.trim().isEmpty()) {
+            throw new IllegalArgumentException("O ID da ação de referência não pode ser nulo ou vazio.");
+        }
+        return getBoardActions("&since=" + sinceActionId + "&limit=" + BOARD_ACTIONS_LIMIT
+                + "&fields=id,type,date,data&memberCreator=false&member=false");
+    }
+
+    private JSONArray getBoardActions(String query) throws TrelloApiException, IOException, InterruptedException {
+        if (this.boardID == null || this.boardID.trim().isEmpty()) {
+            throw new IllegalStateException("ID do Quadro (BoardID) não foi configurado ou é inválido.");
+        }
+        String endpoint = "/boards/" + this.boardID + "/actions" + buildAuthQueryString(true) + query;
+        HttpResponse<String> response = makeRevalidatedGet(endpoint);
 
         if (response.statusCode() == 200) {
             try {
                 return new JSONArray(response.body());
             } catch (JSONException e) {
-                throw new TrelloApiException("Erro ao parsear JSON da resposta para cartões do quadro: " + e.getMessage(), response.statusCode(), e);
+                throw new TrelloApiException("Erro ao parsear JSON da resposta para ações do quadro: " + e.getMessage(), response.statusCode(), e);
             }
         } else {
-            throw new TrelloApiException("Falha ao buscar cartões do quadro: " + response.body(), response.statusCode());
+            throw new TrelloApiException("Falha ao buscar ações do quadro: " + response.body(), response.statusCode());
+        }
+    }
+
+    /**
+     * Comentários e anexos de um cartão obtidos previamente (por exemplo, via {@link #getCardDetailsBatch}).
+     */
+    public static class CardDetails {
+        private final JSONArray comments;
+        private final JSONArray attachments;
+
+        public CardDetails(JSONArray comments, JSONArray attachments) {
+            this.comments = comments;
+            this.attachments = attachments;
+        }
+
+        public JSONArray getComments() {
+            return comments;
+        }
+
+        public JSONArray getAttachments() {
+            return attachments;
         }
     }
 
@@ -171,9 +554,151 @@ public class TrelloService {
     }
 
     private HttpResponse<String> makeApiRequest(String method, String endpoint, String body) throws IOException, InterruptedException {
+        return sendApiRequest(buildApiRequest(method, endpoint, body), 1, true);
+    }
+
+    /**
+     * GET que ignora o prazo de validade do cache: sempre vai ao Trello (condicionalmente, se houver validadores).
+     * Usado nas consultas de detecção de mudanças, que perderiam mudanças recentes se lessem uma resposta guardada.
+     */
+    private HttpResponse<String> makeRevalidatedGet(String endpoint) throws IOException, InterruptedException {
+        return sendApiRequest(buildApiRequest("GET", endpoint, null), 1, false);
+    }
+
+    /**
+     * Envia uma requisição à API passando pelo cache de respostas.
+     * GETs reaproveitam a resposta guardada enquanto ela estiver válida, ou a revalidam com uma requisição
+     * condicional (304 devolve o corpo guardado). Qualquer escrita invalida o cache inteiro.
+     * Um GET idêntico a outro ainda em andamento aguarda e recebe a mesma resposta, sem nova requisição.
+     *
+     * @param useFreshCache Se uma resposta guardada dentro do prazo de validade pode ser devolvida sem consultar o Trello.
+     */
+    private HttpResponse<String> sendApiRequest(HttpRequest request, int cost, boolean useFreshCache) throws IOException, InterruptedException {
+        if (!"GET".equals(request.method())) {
+            HttpResponse<String> response = sendWithRateLimit(request, cost);
+            synchronized (WRITE_GENERATION) {
+                WRITE_GENERATION.incrementAndGet();
+                responseCache.invalidateAll();
+            }
+            return response;
+        }
+
+        long generation = WRITE_GENERATION.get();
+        TrelloResponseCache.Entry cached = responseCache.get(request.uri());
+        if (cached != null && useFreshCache && responseCache.isFresh(cached)) {
+            return cached.toResponse(request);
+        }
+
+        // Um GET em andamento só é reaproveitado se começou depois da última escrita; senão pode não refleti-la
+        InFlightGet call = new InFlightGet(generation);
+        InFlightGet inFlight = IN_FLIGHT_GETS.compute(request.uri(),
+                (uri, current) -> current != null && current.generation >= generation ? current : call);
+        if (inFlight != call) {
+            return joinInFlight(inFlight.response);
+        }
+        try {
+            HttpResponse<String> response = sendWithRateLimit(cached != null ? cached.conditional(request) : request, cost);
+            response = storeInCache(request, cached, response, generation);
+            call.response.complete(response);
+            return response;
+        } catch (Throwable e) {
+            call.response.completeExceptionally(e);
+            throw e;
+        } finally {
+            IN_FLIGHT_GETS.remove(request.uri(), call);
+        }
+    }
+
+    /**
+     * Aguarda a resposta de um GET idêntico iniciado por outra chamada.
+     * Se essa chamada foi interrompida, a falha chega aqui como IOException, pois esta thread não foi.
+     */
+    private static HttpResponse<String> joinInFlight(CompletableFuture<HttpResponse<String>> inFlight) throws IOException, InterruptedException {
+        try {
+            return inFlight.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("Falha na requisição compartilhada: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * @param generation Valor de WRITE_GENERATION quando o GET começou; se houve escrita desde então, nada é guardado.
+     */
+    private HttpResponse<String> storeInCache(HttpRequest request, TrelloResponseCache.Entry cached, HttpResponse<String> response, long generation) {
+        boolean notModified = response.statusCode() == 304 && cached != null;
+        synchronized (WRITE_GENERATION) {
+            if (WRITE_GENERATION.get() == generation) {
+                if (notModified) {
+                    responseCache.touch(request.uri(), cached);
+                } else {
+                    responseCache.put(request.uri(), response);
+                }
+            }
+        }
+        return notModified ? cached.toResponse(request) : response;
+    }
+
+    /**
+     * GET em andamento e a geração de escrita em que começou.
+     */
+    private static class InFlightGet {
+        private final long generation;
+        private final CompletableFuture<HttpResponse<String>> response = new CompletableFuture<>();
+
+        InFlightGet(long generation) {
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * Envia uma requisição à API respeitando os limites de taxa do Trello.
+     * Aguarda permissão nos token buckets da chave e do token e, se o Trello responder 429,
+     * pausa os buckets pelo tempo indicado em Retry-After (ou por um backoff exponencial) e tenta novamente.
+     *
+     * @param request Requisição à API do Trello.
+     * @param cost Quantas requisições esta chamada consome (ex: número de rotas de um /batch).
+     * @return A resposta; só retorna 429 após esgotar as novas tentativas.
+     */
+    private HttpResponse<String> sendWithRateLimit(HttpRequest request, int cost) throws IOException, InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            rateLimiter.acquire(cost);
+            HttpResponse<String> response = httpClient.send(request, HttpTransport.ofGzipAwareString());
+            if (response.statusCode() != 429 || attempt >= MAX_RATE_LIMIT_RETRIES) {
+                return response;
+            }
+            rateLimiter.pause(retryDelay(response, attempt));
+        }
+    }
+
+    /**
+     * Igual a {@link #sendWithRateLimit}, mas devolve o corpo como stream para leitura incremental.
+     */
+    private HttpResponse<InputStream> sendStreamingWithRateLimit(HttpRequest request) throws IOException, InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            rateLimiter.acquire(1);
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            if (response.statusCode() != 429 || attempt >= MAX_RATE_LIMIT_RETRIES) {
+                return response;
+            }
+            response.body().close();
+            rateLimiter.pause(retryDelay(response, attempt));
+        }
+    }
+
+    private HttpRequest buildApiRequest(String method, String endpoint, String body) {
         HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
                 .uri(URI.create(TRELLO_API_URL + endpoint))
-                .header("Accept", "application/json");
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip");
 
         if (body != null && !body.isEmpty() && ("POST".equals(method) || "PUT".equals(method))) {
             requestBuilder.header("Content-Type", "application/json; charset=utf-8");
@@ -182,8 +707,7 @@ public class TrelloService {
             requestBuilder.method(method, HttpRequest.BodyPublishers.noBody());
         }
 
-        HttpRequest request = requestBuilder.build();
-        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        return requestBuilder.build();
     }
 
 
@@ -289,7 +813,7 @@ public class TrelloService {
             System.err.println("ID do Quadro não configurado.");
             return 400; // Bad Request (ou outro código apropriado)
         }
-        String endpoint = "/boards/" + this.boardID + buildAuthQueryString(true);
+        String endpoint = "/boards/" + this.boardID + buildAuthQueryString(true) + "&fields=id";
         HttpResponse<String> response;
         try {
             response = makeApiRequest("GET", endpoint, null);
@@ -322,69 +846,127 @@ public class TrelloService {
                 return null;
             }
 
-            JSONArray attachments = getCardAttachments(cardID);
-            for (int i = 0; i < attachments.length(); i++) {
-                JSONObject attachment = attachments.getJSONObject(i);
-                String fileName = attachment.optString("fileName", "").toLowerCase(); // Usar optString e toLowerCase
-                // Procura por um anexo .csv como uma convenção para arquivo de cenário
-                if (fileName.endsWith(".csv")) { // Simplificado para qualquer .csv por enquanto
-                    String downloadUrl = attachment.getString("url"); // URL direta do Trello para download
-
-                    // Cria diretório temporário se não existir
-                    String projectBasePath = getProjectPath();
-                    if (projectBasePath == null || projectBasePath.isEmpty()) {
-                        projectBasePath = System.getProperty("java.io.tmpdir"); // Fallback para diretório temp do sistema
-                    }
-                    Path tempTaitiDirPath = Paths.get(projectBasePath, "temp_taiti");
-                    if (!Files.exists(tempTaitiDirPath)) {
-                        Files.createDirectories(tempTaitiDirPath);
-                    }
-                    // Usar um nome de arquivo mais seguro, evitando caracteres inválidos de 'fileName'
-                    String safeFileName = "taiti_download_" + cardID + "_" + attachment.optString("id", "file") + ".csv";
-                    File downloadedFile = new File(tempTaitiDirPath.toFile(), safeFileName);
-
-                    // Realiza o download usando o token da API no header para autenticação
-                    // A URL de download do Trello já é pré-assinada e geralmente não requer headers de auth adicionais.
-                    HttpRequest downloadRequest = HttpRequest.newBuilder()
-                            .uri(URI.create(downloadUrl))
-                            // .header("Authorization", "OAuth oauth_consumer_key=\"" + apiKey + "\", oauth_token=\"" + serverToken + "\"") // Geralmente não necessário para URL de download do Trello
+            return downloadTaitiFileFromAttachments(cardID, getCardAttachments(cardID));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Operação interrompida ao baixar arquivo do Trello.", e);
+        }
+    }
+
+    /**
+     * Baixa o arquivo TAITI (primeiro .csv encontrado) a partir dos anexos já conhecidos de um cartão.
+     * Não verifica o comentário TAITI; o chamador deve fazê-lo antes (ver {@link #findTaitiCommentAction}).
+     *
+     * Anexos já baixados são lidos do {@link TaitiAttachmentCache}, sem acesso à rede.
+     *
+     * @param cardID ID do cartão do Trello.
+     * @param attachments Anexos do cartão.
+     * @return O arquivo do anexo no cache (não deve ser apagado pelo chamador), ou null se não houver anexo .csv.
+     * @throws TrelloApiException Se ocorrer um erro na API.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public File downloadTaitiFileFromAttachments(String cardID, JSONArray attachments) throws TrelloApiException, IOException {
+        try {
+            JSONObject attachment = findScenarioAttachment(attachments);
+            if (attachment == null) {
+                System.out.println("Nenhum anexo .csv encontrado no cartão " + cardID + " após encontrar comentário TAITI.");
+                return null;
+            }
+            String attachmentId = attachment.getString("id");
+            Path cachedFile = attachmentCache.get(attachmentId);
+            if (cachedFile != null) {
+                return cachedFile.toFile();
+            }
+            String downloadUrl = attachment.getString("url"); // URL direta do Trello para download
+
+            // A URL de download do Trello já é pré-assinada e geralmente não requer headers de auth adicionais.
+            HttpRequest downloadRequest = HttpRequest.newBuilder()
+                    .uri(URI.create(downloadUrl))
+                    .GET()
+                    .build();
+
+            HttpResponse<byte[]> response = httpClient.send(downloadRequest, HttpResponse.BodyHandlers.ofByteArray());
+
+            // Tenta com redirecionamento (alguns downloads do Trello podem redirecionar)
+            if (response.statusCode() >= 300 && response.statusCode() < 400 && response.headers().firstValue("Location").isPresent()) {
+                HttpRequest redirectDownloadRequest = HttpRequest.newBuilder()
+                        .uri(URI.create(response.headers().firstValue("Location").get()))
+                        .GET()
+                        .build();
+                response = httpClient.send(redirectDownloadRequest, HttpResponse.BodyHandlers.ofByteArray());
+            }
+            return storeDownloadedAttachment(attachmentId, response);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Operação interrompida ao baixar arquivo do Trello.", e);
+        } catch (JSONException e) {
+            throw new TrelloApiException("Erro ao processar JSON durante download: " + e.getMessage(), -1, e);
+        }
+    }
+
+    /**
+     * Carrega os cenários TAITI de um cartão a partir dos anexos já conhecidos, sem arquivos temporários.
+     * O corpo do download é lido em streaming e convertido direto para a estrutura de cenários;
+     * anexos já vistos vêm da memória ou do {@link TaitiAttachmentCache}.
+     * Não verifica o comentário TAITI; o chamador deve fazê-lo antes (ver {@link #findTaitiCommentAction}).
+     *
+     * @param cardID ID do cartão do Trello.
+     * @param attachments Anexos do cartão.
+     * @return Cenários do primeiro anexo .csv, ou null se o cartão não tiver anexo .csv.
+     * @throws TrelloApiException Se ocorrer um erro na API.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public ArrayList<LinkedHashMap<String, Serializable>> loadTaitiScenariosFromAttachments(String cardID, JSONArray attachments) throws TrelloApiException, IOException {
+        try {
+            JSONObject attachment = findScenarioAttachment(attachments);
+            if (attachment == null) {
+                System.out.println("Nenhum anexo .csv encontrado no cartão " + cardID + " após encontrar comentário TAITI.");
+                return null;
+            }
+            String attachmentId = attachment.getString("id");
+            ArrayList<LinkedHashMap<String, Serializable>> scenarios = attachmentCache.getScenarios(attachmentId);
+            if (scenarios != null) {
+                return new ArrayList<>(scenarios);
+            }
+
+            Path cachedFile = attachmentCache.get(attachmentId);
+            if (cachedFile != null) {
+                try (BufferedReader reader = Files.newBufferedReader(cachedFile, StandardCharsets.UTF_8)) {
+                    scenarios = TaitiTool.parseScenarios(reader);
+                }
+            } else {
+                HttpRequest downloadRequest = HttpRequest.newBuilder()
+                        .uri(URI.create(attachment.getString("url")))
+                        .GET()
+                        .build();
+                HttpResponse<InputStream> response = httpClient.send(downloadRequest, HttpResponse.BodyHandlers.ofInputStream());
+                if (response.statusCode() >= 300 && response.statusCode() < 400 && response.headers().firstValue("Location").isPresent()) {
+                    response.body().close();
+                    HttpRequest redirectDownloadRequest = HttpRequest.newBuilder()
+                            .uri(URI.create(response.headers().firstValue("Location").get()))
                             .GET()
                             .build();
+                    response = httpClient.send(redirectDownloadRequest, HttpResponse.BodyHandlers.ofInputStream());
+                }
 
-                    HttpResponse<byte[]> response = httpClient.send(downloadRequest, HttpResponse.BodyHandlers.ofByteArray());
-
-                    if (response.statusCode() == 200) {
-                        try (FileOutputStream fos = new FileOutputStream(downloadedFile)) {
-                            fos.write(response.body());
-                        }
-                        System.out.println("Arquivo baixado: " + downloadedFile.getAbsolutePath());
-                        return downloadedFile;
-                    } else {
-                        // Tenta com redirecionamento (alguns downloads do Trello podem redirecionar)
-                        if (response.statusCode() >= 300 && response.statusCode() < 400 && response.headers().firstValue("Location").isPresent()) {
-                            String redirectUrl = response.headers().firstValue("Location").get();
-                            HttpRequest redirectDownloadRequest = HttpRequest.newBuilder()
-                                    .uri(URI.create(redirectUrl))
-                                    .GET()
-                                    .build();
-                            response = httpClient.send(redirectDownloadRequest, HttpResponse.BodyHandlers.ofByteArray());
-                            if (response.statusCode() == 200) {
-                                try (FileOutputStream fos = new FileOutputStream(downloadedFile)) {
-                                    fos.write(response.body());
-                                }
-                                System.out.println("Arquivo baixado (após redirecionamento): " + downloadedFile.getAbsolutePath());
-                                return downloadedFile;
-                            } else {
-                                throw new TrelloApiException("Falha ao baixar arquivo (após redirecionamento): " + response.statusCode() + " - " + new String(response.body(), StandardCharsets.UTF_8), response.statusCode());
-                            }
-                        } else {
-                            throw new TrelloApiException("Falha ao baixar arquivo: " + response.statusCode() + " - " + new String(response.body(), StandardCharsets.UTF_8), response.statusCode());
-                        }
+                try (InputStream body = response.body()) {
+                    if (response.statusCode() != 200) {
+                        throw new TrelloApiException("Falha ao baixar arquivo: " + response.statusCode() + " - " + new String(body.readAllBytes(), StandardCharsets.UTF_8), response.statusCode());
+                    }
+                    // Converte enquanto o corpo chega e guarda uma cópia dos bytes para o cache de anexos
+                    ByteArrayOutputStream raw = new ByteArrayOutputStream();
+                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(new CopyingInputStream(body, raw), StandardCharsets.UTF_8))) {
+                        scenarios = TaitiTool.parseScenarios(reader);
+                    }
+                    if (attachmentCache.accepts(attachmentId)) {
+                        attachmentCache.put(attachmentId, raw.toByteArray());
                     }
                 }
             }
-            System.out.println("Nenhum anexo .csv encontrado no cartão " + cardID + " após encontrar comentário TAITI.");
-            return null;
+
+            attachmentCache.putScenarios(attachmentId, scenarios);
+            return new ArrayList<>(scenarios);
 
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
@@ -394,6 +976,62 @@ public class TrelloService {
         }
     }
 
+    /**
+     * InputStream que copia tudo o que é lido para um segundo destino.
+     */
+    private static class CopyingInputStream extends FilterInputStream {
+        private final OutputStream copy;
+
+        CopyingInputStream(InputStream in, OutputStream copy) {
+            super(in);
+            this.copy = copy;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                copy.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count > 0) {
+                copy.write(buffer, offset, count);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Procura o anexo de cenários (primeiro .csv) entre os anexos de um cartão.
+     *
+     * @param attachments Anexos do cartão.
+     * @return O anexo .csv, ou null se não houver.
+     */
+    private JSONObject findScenarioAttachment(JSONArray attachments) {
+        for (int i = 0; i < attachments.length(); i++) {
+            JSONObject attachment = attachments.getJSONObject(i);
+            String fileName = attachment.optString("fileName", "").toLowerCase();
+            if (fileName.endsWith(".csv")) { // Simplificado para qualquer .csv por enquanto
+                return attachment;
+            }
+        }
+        return null;
+    }
+
+    private File storeDownloadedAttachment(String attachmentId, HttpResponse<byte[]> response) throws IOException {
+        if (response.statusCode() != 200) {
+            throw new TrelloApiException("Falha ao baixar arquivo: " + response.statusCode() + " - " + new String(response.body(), StandardCharsets.UTF_8), response.statusCode());
+        }
+        File downloadedFile = attachmentCache.put(attachmentId, response.body()).toFile();
+        System.out.println("Arquivo baixado: " + downloadedFile.getAbsolutePath());
+        return downloadedFile;
+    }
+
 
     /**
      * Busca detalhes de arquivos TAITI (anexos .csv) em cartões de listas especificadas.
@@ -456,8 +1094,7 @@ public class TrelloService {
         if (cardID == null || cardID.trim().isEmpty()) {
             throw new IllegalArgumentException("ID do Cartão não pode ser nulo ou vazio.");
         }
-        String endpoint = "/cards/" + cardID + "/attachments" + buildAuthQueryString(true);
-        HttpResponse<String> response = makeApiRequest("GET", endpoint, null);
+        HttpResponse<String> response = makeApiRequest("GET", cardAttachmentsEndpoint(cardID), null);
 
         if (response.statusCode() == 200) {
             try {
@@ -481,6 +1118,17 @@ public class TrelloService {
      */
     public JSONObject getTaitiCommentActionOnCard(String cardID) throws TrelloApiException, IOException, InterruptedException {
         JSONArray comments = getCommentsOnCard(cardID); // Pode lançar TrelloApiException
+        return findTaitiCommentAction(cardID, comments);
+    }
+
+    /**
+     * Procura o comentário TAITI em uma lista de comentários já carregada.
+     *
+     * @param cardID ID do cartão (usado apenas nas mensagens de aviso).
+     * @param comments Ações de comentário do cartão.
+     * @return JSONObject da ação do comentário TAITI, ou null se não encontrado.
+     */
+    public JSONObject findTaitiCommentAction(String cardID, JSONArray comments) {
         for (int i = 0; i < comments.length(); i++) {
             try {
                 JSONObject commentAction = comments.getJSONObject(i);
@@ -511,8 +1159,7 @@ public class TrelloService {
         if (cardID == null || cardID.trim().isEmpty()) {
             throw new IllegalArgumentException("ID do Cartão não pode ser nulo ou vazio.");
         }
-        String endpoint = "/cards/" + cardID + "/actions" + buildAuthQueryString(true) + "&filter=commentCard";
-        HttpResponse<String> response = makeApiRequest("GET", endpoint, null);
+        HttpResponse<String> response = makeApiRequest("GET", cardCommentsEndpoint(cardID), null);
 
         if (response.statusCode() == 200) {
             try {
@@ -534,7 +1181,7 @@ public class TrelloService {
      * @throws InterruptedException Se a operação for interrompida.
      */
     public String getAuthenticatedUserId() throws TrelloApiException, IOException, InterruptedException {
-        String endpoint = "/members/me" + buildAuthQueryString(true);
+        String endpoint = "/members/me" + buildAuthQueryString(true) + "&fields=id";
         HttpResponse<String> response = makeApiRequest("GET", endpoint, null);
 
         if (response.statusCode() == 200) {
@@ -561,7 +1208,7 @@ public class TrelloService {
         if (this.boardID == null || this.boardID.trim().isEmpty()) {
             throw new IllegalArgumentException("ID do Quadro não configurado para buscar membros.");
         }
-        String endpoint = "/boards/" + this.boardID + "/members" + buildAuthQueryString(true);
+        String endpoint = "/boards/" + this.boardID + "/members" + buildAuthQueryString(true) + "&fields=" + MEMBER_FIELDS;
         HttpResponse<String> response = makeApiRequest("GET", endpoint, null);
 
         if (response.statusCode() == 200) {
@@ -588,8 +1235,7 @@ public class TrelloService {
         if (listID == null || listID.trim().isEmpty()) {
             throw new IllegalArgumentException("ID da Lista não pode ser nulo ou vazio.");
         }
-        // Adiciona fields para obter mais detalhes dos cartões se necessário
-        String endpoint = "/lists/" + listID + "/cards" + buildAuthQueryString(true) + "&fields=id,name,idList,idMembers,desc,url,labels,due,closed";
+        String endpoint = "/lists/" + listID + "/cards" + buildAuthQueryString(true) + "&fields=" + CARD_FIELDS;
         HttpResponse<String> response = makeApiRequest("GET", endpoint, null);
 
         if (response.statusCode() == 200) {
@@ -624,26 +1270,13 @@ public class TrelloService {
         }
 
         // 1. Upload do arquivo para o cartão
-        String attachmentsUrl = TRELLO_API_URL + "/cards/" + cardID + "/attachments" + buildAuthQueryString(true);
-        RequestBody fileBody;
+        Request uploadRequest = buildUploadRequest(file, cardID);
         try {
-            String contentType = Files.probeContentType(file.toPath());
-            if (contentType == null) {
-                contentType = "application/octet-stream"; // Fallback genérico
-            }
-            fileBody = RequestBody.create(file, MediaType.parse(contentType));
-        } catch (IOException e) {
-            System.err.println("Não foi possível determinar o tipo de conteúdo do arquivo, usando application/octet-stream: " + e.getMessage());
-            fileBody = RequestBody.create(file, MediaType.parse("application/octet-stream"));
+            rateLimiter.acquire(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Upload interrompido enquanto aguardava o limite de requisições do Trello.", e);
         }
-
-        MultipartBody multipartBody = new MultipartBody.Builder()
-                .setType(MultipartBody.FORM)
-                .addFormDataPart("file", file.getName(), fileBody)
-                .addFormDataPart("name", file.getName()) // Nome do anexo no Trello
-                .build();
-
-        Request uploadRequest = new Request.Builder().url(attachmentsUrl).post(multipartBody).build();
         JSONObject attachmentJson = null;
         try (Response uploadResponse = okHttpClient.newCall(uploadRequest).execute()) {
             String responseBodyString = uploadResponse.body() != null ? uploadResponse.body().string() : "";
@@ -677,7 +1310,7 @@ public class TrelloService {
                 .build();
 
         try {
-            HttpResponse<String> commentHttpResponse = httpClient.send(commentHttpRequest, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> commentHttpResponse = sendApiRequest(commentHttpRequest, 1, true);
             if (commentHttpResponse.statusCode() < 200 || commentHttpResponse.statusCode() >= 300) {
                 // Se o comentário falhar, idealmente deveríamos tentar deletar o anexo recém-criado
                 if (attachmentJson != null && attachmentJson.has("id")) {
@@ -708,6 +1341,32 @@ public class TrelloService {
     }
 
 
+    /**
+     * Monta a requisição multipart de upload de um arquivo como anexo de um cartão.
+     */
+    private Request buildUploadRequest(File file, String cardID) {
+        String attachmentsUrl = TRELLO_API_URL + "/cards/" + cardID + "/attachments" + buildAuthQueryString(true);
+        RequestBody fileBody;
+        try {
+            String contentType = Files.probeContentType(file.toPath());
+            if (contentType == null) {
+                contentType = "application/octet-stream"; // Fallback genérico
+            }
+            fileBody = RequestBody.create(file, MediaType.parse(contentType));
+        } catch (IOException e) {
+            System.err.println("Não foi possível determinar o tipo de conteúdo do arquivo, usando application/octet-stream: " + e.getMessage());
+            fileBody = RequestBody.create(file, MediaType.parse("application/octet-stream"));
+        }
+
+        MultipartBody multipartBody = new MultipartBody.Builder()
+                .setType(MultipartBody.FORM)
+                .addFormDataPart("file", file.getName(), fileBody)
+                .addFormDataPart("name", file.getName()) // Nome do anexo no Trello
+                .build();
+
+        return new Request.Builder().url(attachmentsUrl).post(multipartBody).build();
+    }
+
     /**
      * Deleta uma ação de comentário.
      *
@@ -728,6 +1387,481 @@ public class TrelloService {
         }
     }
 
+    // --- API assíncrona ---
+    // Versões não bloqueantes das consultas e operações de escrita, baseadas em HttpClient.sendAsync.
+    // Todas passam pelo mesmo limitador de concorrência (ver setMaxConcurrentRequests).
+    // Erros chegam ao futuro como CompletionException envolvendo TrelloApiException ou IOException.
+
+    /**
+     * Versão assíncrona de {@link #getCardsOnBoard()}.
+     */
+    public CompletableFuture<JSONArray> getCardsOnBoardAsync() {
+        if (this.boardID == null || this.boardID.trim().isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("ID do Quadro (BoardID) não foi configurado ou é inválido."));
+        }
+        return makeApiRequestAsync("GET", cardsOnBoardEndpoint(), null)
+                .thenApply(response -> readJsonArray(response, "cartões do quadro"));
+    }
+
+    /**
+     * Versão assíncrona de {@link #getCardAttachments(String)}.
+     */
+    public CompletableFuture<JSONArray> getCardAttachmentsAsync(String cardID) {
+        if (cardID == null || cardID.trim().isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("ID do Cartão não pode ser nulo ou vazio."));
+        }
+        return makeApiRequestAsync("GET", cardAttachmentsEndpoint(cardID), null)
+                .thenApply(response -> readJsonArray(response, "anexos do cartão"));
+    }
+
+    /**
+     * Versão assíncrona de {@link #getCommentsOnCard(String)}.
+     */
+    public CompletableFuture<JSONArray> getCommentsOnCardAsync(String cardID) {
+        if (cardID == null || cardID.trim().isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("ID do Cartão não pode ser nulo ou vazio."));
+        }
+        return makeApiRequestAsync("GET", cardCommentsEndpoint(cardID), null)
+                .thenApply(response -> readJsonArray(response, "comentários do cartão"));
+    }
+
+    /**
+     * Versão assíncrona de {@link #downloadTaitiFileFromCard(String)}.
+     *
+     * @param cardID ID do cartão do Trello.
+     * @return Futuro com o arquivo baixado, ou com null se o cartão não tiver comentário TAITI ou anexo .csv.
+     */
+    public CompletableFuture<File> downloadTaitiFileFromCardAsync(String cardID) {
+        return getCommentsOnCardAsync(cardID).thenCompose(comments -> {
+            if (findTaitiCommentAction(cardID, comments) == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return getCardAttachmentsAsync(cardID)
+                    .thenCompose(attachments -> downloadTaitiFileFromAttachmentsAsync(cardID, attachments));
+        });
+    }
+
+    /**
+     * Versão assíncrona de {@link #downloadTaitiFileFromAttachments(String, JSONArray)}.
+     */
+    public CompletableFuture<File> downloadTaitiFileFromAttachmentsAsync(String cardID, JSONArray attachments) {
+        String attachmentId;
+        HttpRequest downloadRequest;
+        try {
+            JSONObject attachment = findScenarioAttachment(attachments);
+            if (attachment == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            attachmentId = attachment.getString("id");
+            Path cachedFile = attachmentCache.get(attachmentId);
+            if (cachedFile != null) {
+                return CompletableFuture.completedFuture(cachedFile.toFile());
+            }
+            downloadRequest = HttpRequest.newBuilder()
+                    .uri(URI.create(attachment.getString("url")))
+                    .GET()
+                    .build();
+        } catch (JSONException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return asyncLimiter.submit(() -> httpClient.sendAsync(downloadRequest, HttpResponse.BodyHandlers.ofByteArray()))
+                .thenCompose(response -> {
+                    if (response.statusCode() >= 300 && response.statusCode() < 400 && response.headers().firstValue("Location").isPresent()) {
+                        HttpRequest redirectDownloadRequest = HttpRequest.newBuilder()
+                                .uri(URI.create(response.headers().firstValue("Location").get()))
+                                .GET()
+                                .build();
+                        return asyncLimiter.submit(() -> httpClient.sendAsync(redirectDownloadRequest, HttpResponse.BodyHandlers.ofByteArray()));
+                    }
+                    return CompletableFuture.completedFuture(response);
+                })
+                .thenApply(response -> {
+                    try {
+                        return storeDownloadedAttachment(attachmentId, response);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
+
+    /**
+     * Versão assíncrona de {@link #saveTaitiScenarios(File, String)}.
+     */
+    public CompletableFuture<Void> saveTaitiScenariosAsync(File scenarios, String cardID) {
+        if (scenarios == null || !scenarios.exists()) {
+            return CompletableFuture.failedFuture(new IOException("Arquivo de cenários não encontrado ou é inválido."));
+        }
+        return deleteTaitiScenariosAsync(cardID)
+                .thenCompose(v -> postTaitiCommentAndUploadFileAsync(scenarios, cardID, TAITI_MSG));
+    }
+
+    /**
+     * Versão assíncrona de {@link #deleteTaitiScenarios(String)}. Comentários e anexos são buscados
+     * e removidos em paralelo.
+     */
+    public CompletableFuture<Void> deleteTaitiScenariosAsync(String cardID) {
+        if (cardID == null || cardID.trim().isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("ID do Cartão não pode ser nulo ou vazio."));
+        }
+        CompletableFuture<Void> deleteComments = getCommentsOnCardAsync(cardID).thenCompose(comments -> {
+            List<CompletableFuture<Void>> deletions = new ArrayList<>();
+            for (int i = 0; i < comments.length(); i++) {
+                JSONObject commentAction = comments.getJSONObject(i);
+                JSONObject data = commentAction.optJSONObject("data");
+                if (data != null && TAITI_MSG.equals(data.optString("text", null))) {
+                    deletions.add(deleteCommentActionAsync(getActionID(commentAction)));
+                }
+            }
+            return CompletableFuture.allOf(deletions.toArray(new CompletableFuture[0]));
+        });
+        CompletableFuture<Void> deleteAttachments = getCardAttachmentsAsync(cardID).thenCompose(attachments -> {
+            List<CompletableFuture<Void>> deletions = new ArrayList<>();
+            for (int i = 0; i < attachments.length(); i++) {
+                JSONObject attachment = attachments.getJSONObject(i);
+                String fileName = attachment.optString("name", "").toLowerCase();
+                if ((fileName.contains("taiti") || fileName.contains("scenario")) && fileName.endsWith(".csv")) {
+                    deletions.add(deleteAttachmentAsync(cardID, attachment.getString("id")));
+                }
+            }
+            return CompletableFuture.allOf(deletions.toArray(new CompletableFuture[0]));
+        });
+        return CompletableFuture.allOf(deleteComments, deleteAttachments);
+    }
+
+    /**
+     * Versão assíncrona de {@link #deleteAttachment(String, String)}.
+     */
+    public CompletableFuture<Void> deleteAttachmentAsync(String cardId, String attachmentId) {
+        String endpoint = "/cards/" + cardId + "/attachments/" + attachmentId + buildAuthQueryString(true);
+        return makeApiRequestAsync("DELETE", endpoint, null)
+                .thenAccept(response -> requireSuccess(response, "Falha ao deletar anexo"));
+    }
+
+    /**
+     * Versão assíncrona de {@link #deleteCommentAction(String)}.
+     */
+    public CompletableFuture<Void> deleteCommentActionAsync(String commentActionID) {
+        if (commentActionID == null || commentActionID.trim().isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("ID da Ação do Comentário não pode ser nulo ou vazio."));
+        }
+        String endpoint = "/actions/" + commentActionID + buildAuthQueryString(true);
+        return makeApiRequestAsync("DELETE", endpoint, null)
+                .thenAccept(response -> requireSuccess(response, "Falha ao deletar comentário"));
+    }
+
+    /**
+     * Versão assíncrona de {@link #postTaitiCommentAndUploadFile(File, String, String)}.
+     * Se o comentário falhar após o upload, o anexo recém-criado é removido.
+     */
+    public CompletableFuture<Void> postTaitiCommentAndUploadFileAsync(File file, String cardID, String commentText) {
+        if (file == null || !file.exists()) {
+            return CompletableFuture.failedFuture(new IOException("Arquivo inválido ou não encontrado para upload."));
+        }
+        if (cardID == null || cardID.trim().isEmpty() || commentText == null || commentText.trim().isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("ID do Cartão e texto do comentário não podem ser nulos ou vazios."));
+        }
+
+        Request uploadRequest = buildUploadRequest(file, cardID);
+        CompletableFuture<JSONObject> upload = rateLimiter.acquireAsync(1, asyncExecutor).thenCompose(v -> asyncLimiter.submit(() -> {
+            CompletableFuture<JSONObject> uploaded = new CompletableFuture<>();
+            okHttpClient.newCall(uploadRequest).enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    uploaded.completeExceptionally(e);
+                }
+
+                @Override
+                public void onResponse(Call call, Response uploadResponse) {
+                    try (uploadResponse) {
+                        String responseBodyString = uploadResponse.body() != null ? uploadResponse.body().string() : "";
+                        if (!uploadResponse.isSuccessful()) {
+                            uploaded.completeExceptionally(new TrelloApiException("Falha ao enviar arquivo para o Trello: " + responseBodyString, uploadResponse.code()));
+                        } else {
+                            uploaded.complete(new JSONObject(responseBodyString));
+                        }
+                    } catch (IOException | JSONException e) {
+                        uploaded.completeExceptionally(new IOException("Erro ao parsear resposta do upload do arquivo: " + e.getMessage(), e));
+                    }
+                }
+            });
+            return uploaded;
+        }));
+
+        String endpoint = "/cards/" + cardID + "/actions/comments" + buildAuthQueryString(true)
+                + "&text=" + URLEncoder.encode(commentText, StandardCharsets.UTF_8);
+        return upload.thenCompose(attachmentJson -> makeApiRequestAsync("POST", endpoint, null)
+                .thenAccept(response -> requireSuccess(response, "Falha ao postar comentário no Trello"))
+                .exceptionallyCompose(error -> {
+                    System.err.println("Comentário falhou após upload do anexo. Tentando deletar anexo: " + attachmentJson.optString("id"));
+                    return deleteAttachmentAsync(cardID, attachmentJson.optString("id"))
+                            .handle((v, deleteError) -> null)
+                            .thenCompose(v -> CompletableFuture.<Void>failedFuture(error));
+                }));
+    }
+
+    /**
+     * Versão assíncrona de {@link #sendApiRequest}, com o mesmo cache de respostas e o mesmo
+     * compartilhamento de GETs em andamento.
+     */
+    private CompletableFuture<HttpResponse<String>> makeApiRequestAsync(String method, String endpoint, String body) {
+        HttpRequest request = buildApiRequest(method, endpoint, body);
+        if (!"GET".equals(method)) {
+            return sendWithRateLimitAsync(request, 0).thenApply(response -> {
+                synchronized (WRITE_GENERATION) {
+                    WRITE_GENERATION.incrementAndGet();
+                    responseCache.invalidateAll();
+                }
+                return response;
+            });
+        }
+
+        long generation = WRITE_GENERATION.get();
+        TrelloResponseCache.Entry cached = responseCache.get(request.uri());
+        if (cached != null && responseCache.isFresh(cached)) {
+            return CompletableFuture.completedFuture(cached.toResponse(request));
+        }
+
+        InFlightGet call = new InFlightGet(generation);
+        InFlightGet inFlight = IN_FLIGHT_GETS.compute(request.uri(),
+                (uri, current) -> current != null && current.generation >= generation ? current : call);
+        if (inFlight != call) {
+            return inFlight.response.copy(); // Cópia: quem a recebe não consegue completar a chamada compartilhada
+        }
+        sendWithRateLimitAsync(cached != null ? cached.conditional(request) : request, 0)
+                .thenApply(response -> storeInCache(request, cached, response, generation))
+                .whenComplete((response, error) -> {
+                    IN_FLIGHT_GETS.remove(request.uri(), call);
+                    if (error != null) {
+                        call.response.completeExceptionally(error);
+                    } else {
+                        call.response.complete(response);
+                    }
+                });
+        return call.response.copy();
+    }
+
+    /**
+     * Versão assíncrona de {@link #sendWithRateLimit}: a espera pelos buckets e as novas tentativas após 429
+     * são agendadas com atraso, sem bloquear threads.
+     */
+    private CompletableFuture<HttpResponse<String>> sendWithRateLimitAsync(HttpRequest request, int attempt) {
+        return rateLimiter.acquireAsync(1, asyncExecutor)
+                .thenCompose(v -> asyncLimiter.submit(() -> httpClient.sendAsync(request, HttpTransport.ofGzipAwareString())))
+                .thenCompose(response -> {
+                    if (response.statusCode() != 429 || attempt >= MAX_RATE_LIMIT_RETRIES) {
+                        return CompletableFuture.completedFuture(response);
+                    }
+                    rateLimiter.pause(retryDelay(response, attempt));
+                    return sendWithRateLimitAsync(request, attempt + 1);
+                });
+    }
+
+    /**
+     * Tempo de espera após um 429: o valor de Retry-After (em segundos) se presente,
+     * senão um backoff exponencial limitado à janela de 10 segundos do Trello.
+     */
+    private static Duration retryDelay(HttpResponse<?> response, int attempt) {
+        String retryAfter = response.headers().firstValue("Retry-After").orElse(null);
+        if (retryAfter != null) {
+            try {
+                return Duration.ofSeconds(Math.max(1, Long.parseLong(retryAfter.trim())));
+            } catch (NumberFormatException e) {
+                System.err.println("Aviso: Retry-After inválido recebido do Trello: " + retryAfter);
+            }
+        }
+        return Duration.ofSeconds(Math.min(1L << attempt, RATE_LIMIT_WINDOW.getSeconds()));
+    }
+
+    private static JSONArray readJsonArray(HttpResponse<String> response, String description) {
+        if (response.statusCode() != 200) {
+            throw new CompletionException(new TrelloApiException("Falha ao buscar " + description + ": " + response.body(), response.statusCode()));
+        }
+        try {
+            return new JSONArray(response.body());
+        } catch (JSONException e) {
+            throw new CompletionException(new TrelloApiException("Erro ao parsear JSON da resposta para " + description + ": " + e.getMessage(), response.statusCode(), e));
+        }
+    }
+
+    private static void requireSuccess(HttpResponse<String> response, String failureMessage) {
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new CompletionException(new TrelloApiException(failureMessage + ": " + response.body(), response.statusCode()));
+        }
+    }
+
+    /**
+     * Agenda as requisições conforme os limites de taxa do Trello (300 req/10s por chave e 100 req/10s por token).
+     * Os buckets são compartilhados por todas as instâncias de TrelloService que usam a mesma chave ou token.
+     */
+    private static class RateLimitScheduler {
+        private static final Map<String, TokenBucket> BUCKETS = new ConcurrentHashMap<>();
+
+        private final TokenBucket keyBucket;
+        private final TokenBucket tokenBucket;
+
+        RateLimitScheduler(String apiKey, String serverToken) {
+            this.keyBucket = BUCKETS.computeIfAbsent("key:" + apiKey, k -> new TokenBucket(KEY_REQUESTS_PER_WINDOW, RATE_LIMIT_WINDOW));
+            this.tokenBucket = BUCKETS.computeIfAbsent("token:" + serverToken, k -> new TokenBucket(TOKEN_REQUESTS_PER_WINDOW, RATE_LIMIT_WINDOW));
+        }
+
+        /**
+         * Reserva permissões nos dois buckets e retorna quanto tempo (em nanossegundos) esperar antes de enviar.
+         */
+        private long reserve(int permits) {
+            return Math.max(keyBucket.reserve(permits), tokenBucket.reserve(permits));
+        }
+
+        void acquire(int permits) throws InterruptedException {
+            long waitNanos = reserve(permits);
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+
+        /**
+         * Versão assíncrona de {@link #acquire}: a espera é agendada no executor informado, sem bloquear threads.
+         */
+        CompletableFuture<Void> acquireAsync(int permits, Executor executor) {
+            long waitNanos = reserve(permits);
+            if (waitNanos <= 0) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS, executor));
+        }
+
+        /**
+         * Suspende os buckets após um 429; o Trello não informa qual limite foi atingido, então ambos são pausados.
+         */
+        void pause(Duration delay) {
+            keyBucket.pause(delay.toNanos());
+            tokenBucket.pause(delay.toNanos());
+        }
+    }
+
+    /**
+     * Token bucket com reservas: permissões podem ficar negativas, e quem reserva espera o tempo necessário
+     * para o saldo voltar a zero. Assim as requisições são atendidas na ordem em que chegaram.
+     */
+    private static class TokenBucket {
+        private final int capacity;
+        private final long windowNanos;
+        private double tokens;
+        private long lastRefill;
+        private long pausedUntil;
+
+        TokenBucket(int capacity, Duration window) {
+            this.capacity = capacity;
+            this.windowNanos = window.toNanos();
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+            this.pausedUntil = lastRefill;
+        }
+
+        synchronized long reserve(int permits) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (double) (now - lastRefill) * capacity / windowNanos);
+            lastRefill = now;
+            tokens -= permits;
+
+            long waitNanos = Math.max(0, pausedUntil - now);
+            if (tokens < 0) {
+                waitNanos = Math.max(waitNanos, (long) (-tokens * windowNanos / capacity));
+            }
+            return waitNanos;
+        }
+
+        synchronized void pause(long delayNanos) {
+            pausedUntil = Math.max(pausedUntil, System.nanoTime() + delayNanos);
+            tokens = Math.min(tokens, 0);
+        }
+    }
+
+    /**
+     * Limita o número de requisições assíncronas em andamento sem bloquear threads:
+     * as excedentes ficam em fila e são disparadas no executor do transporte conforme as anteriores terminam.
+     */
+    private static class AsyncRequestLimiter {
+        private final Executor executor;
+        private final Queue<Runnable> pending = new ArrayDeque<>();
+        private int maxInFlight;
+        private int inFlight;
+
+        AsyncRequestLimiter(int maxInFlight, Executor executor) {
+            this.maxInFlight = maxInFlight;
+            this.executor = executor;
+        }
+
+        synchronized int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        /**
+         * Um limite maior dispara imediatamente as requisições em fila; com um limite menor, as que já estão
+         * em andamento terminam normalmente e a fila só volta a andar quando o total cair abaixo do novo limite.
+         */
+        void setMaxInFlight(int maxInFlight) {
+            List<Runnable> toStart = new ArrayList<>();
+            synchronized (this) {
+                this.maxInFlight = maxInFlight;
+                while (inFlight < this.maxInFlight && !pending.isEmpty()) {
+                    inFlight++;
+                    toStart.add(pending.poll());
+                }
+            }
+            toStart.forEach(executor::execute);
+        }
+
+        <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> request) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            Runnable start = () -> {
+                CompletableFuture<T> future;
+                try {
+                    future = request.get();
+                } catch (RuntimeException e) {
+                    future = CompletableFuture.failedFuture(e);
+                }
+                future.whenComplete((value, error) -> {
+                    release();
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            };
+
+            boolean startNow;
+            synchronized (this) {
+                startNow = inFlight < maxInFlight;
+                if (startNow) {
+                    inFlight++;
+                } else {
+                    pending.add(start);
+                }
+            }
+            if (startNow) {
+                start.run();
+            }
+            return result;
+        }
+
+        private void release() {
+            Runnable next = null;
+            synchronized (this) {
+                // Acima do limite (ele foi reduzido), a vaga é devolvida em vez de passada à próxima da fila
+                if (inFlight > maxInFlight || pending.isEmpty()) {
+                    inFlight--;
+                } else {
+                    next = pending.poll();
+                }
+            }
+            if (next != null) {
+                // Dispara fora da thread atual para não encadear recursivamente respostas já concluídas
+                executor.execute(next);
+            }
+        }
+    }
+
     /**
      * Obtém o ID de uma ação (como um comentário) de um JSONObject.
      *
@@ -743,28 +1877,6 @@ public class TrelloService {
         return actionJson.getString("id");
     }
 
-    /**
-     * Obtém o caminho base do projeto IntelliJ.
-     *
-     * @return Caminho do projeto ou null se não puder ser determinado.
-     */
-    private String getProjectPath() {
-        if (this.project == null) {
-            // System.err.println("Objeto Project do IntelliJ não foi inicializado. Usando diretório temporário padrão.");
-            return System.getProperty("java.io.tmpdir"); // Retorna o diretório temporário do sistema como fallback
-        }
-        VirtualFile projectDir = ProjectUtil.guessProjectDir(this.project);
-        if (projectDir != null) {
-            return projectDir.getPath();
-        }
-        String basePath = this.project.getBasePath();
-        if (basePath != null) {
-            return basePath;
-        }
-        System.err.println("Não foi possível determinar o caminho do projeto IntelliJ. Usando diretório temporário padrão.");
-        return System.getProperty("java.io.tmpdir");
-    }
-
     // --- Métodos Main para Teste (Exemplo) ---
     public static void main(String[] args) {
         // ATENÇÃO: Substitua pelas suas credenciais e IDs reais para testar.
@@ -843,7 +1955,6 @@ public class TrelloService {
                 if (downloadedFile != null && downloadedFile.exists()) {
                     System.out.println("Arquivo baixado com sucesso para: " + downloadedFile.getAbsolutePath() + " (Tamanho: " + downloadedFile.length() + " bytes)");
                     System.out.println("Conteúdo do arquivo baixado: \n" + new String(Files.readAllBytes(downloadedFile.toPath())));
-                    downloadedFile.delete();
                 } else {
                     System.out.println("Não foi possível baixar o arquivo TAITI ou não foi encontrado.");
                 }
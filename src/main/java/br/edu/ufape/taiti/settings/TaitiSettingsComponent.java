@@ -1,5 +1,6 @@
 package br.edu.ufape.taiti.settings;
 
+import br.edu.ufape.taiti.service.TrelloService;
 import com.intellij.ui.components.JBCheckBox;
 import com.intellij.ui.components.JBLabel;
 import com.intellij.ui.components.JBPasswordField;
@@ -21,6 +22,7 @@ public class TaitiSettingsComponent {
     private final JBTextField trelloBoardUrlOrIdText;
     private final JBTextField trelloApiKeyText;
     private final JBPasswordField trelloServerToken;
+    private final JSpinner maxConcurrentTrelloRequests;
 
     // Campos existentes
     private final JBTextField githubURLText;
@@ -29,6 +31,12 @@ public class TaitiSettingsComponent {
     private final JBTextField unityTestFolder;
     private final JBCheckBox structuralDependenciesCheckBox;
     private final JBCheckBox logicalDependenciesCheckBox;
+    private final JBCheckBox localWorkingCopyCheckBox;
+    private final JBTextField rubyGemsPathText;
+    private final JBTextField jrubyPathText;
+
+    // Acima disso o limite de taxa do Trello (100 requisições a cada 10 segundos por token) já é o gargalo
+    private static final int MAX_CONCURRENT_TRELLO_REQUESTS = 64;
 
     // Painel para o campo de token do Trello e botão de teste
     private final JPanel trelloServerTokenPanel = new JPanel(new BorderLayout(5, 0));
@@ -38,6 +46,7 @@ public class TaitiSettingsComponent {
         trelloBoardUrlOrIdText = new JBTextField();
         trelloApiKeyText = new JBTextField();
         trelloServerToken = new JBPasswordField();
+        maxConcurrentTrelloRequests = new JSpinner(new SpinnerNumberModel(TrelloService.DEFAULT_MAX_CONCURRENT_REQUESTS, 1, MAX_CONCURRENT_TRELLO_REQUESTS, 1));
 
         // Inicialização dos campos existentes
         githubURLText = new JBTextField();
@@ -46,6 +55,12 @@ public class TaitiSettingsComponent {
         unityTestFolder = new JBTextField("spec");
         structuralDependenciesCheckBox = new JBCheckBox("Including structural dependencies between files");
         logicalDependenciesCheckBox = new JBCheckBox("Including logical dependencies between files");
+        localWorkingCopyCheckBox = new JBCheckBox("Analyze the local working copy instead of cloning the GitHub URL");
+        rubyGemsPathText = new JBTextField();
+        jrubyPathText = new JBTextField();
+        // Os caminhos do Ruby também permitem analisar o repositório remoto num clone compartilhado
+        rubyGemsPathText.getEmptyText().setText("Required for local analysis and the shared repository clone");
+        jrubyPathText.getEmptyText().setText("Required for local analysis and the shared repository clone");
 
         // Configurar o campo de token do Trello dentro do trelloServerTokenPanel
         trelloServerTokenPanel.add(trelloServerToken, BorderLayout.CENTER);
@@ -57,6 +72,7 @@ public class TaitiSettingsComponent {
                 .addLabeledComponent(new JBLabel("Trello Board URL/ID: "), trelloBoardUrlOrIdText, 1, false)
                 .addLabeledComponent(new JBLabel("Trello API Key: "), trelloApiKeyText, 1, false)
                 .addLabeledComponent(new JBLabel("Trello Server Token: "), trelloServerTokenPanel, 1, false)
+                .addLabeledComponent(new JBLabel("Concurrent Trello requests: "), maxConcurrentTrelloRequests, 1, false)
                 .addVerticalGap(10)
                 .addLabeledComponent(new JLabel("<html><b>Test settings</b></html>"), new JSeparator(), 0)
                 .addVerticalGap(10)
@@ -68,6 +84,9 @@ public class TaitiSettingsComponent {
                 .addVerticalGap(10)
                 .addComponent(structuralDependenciesCheckBox)
                 .addComponent(logicalDependenciesCheckBox)
+                .addComponent(localWorkingCopyCheckBox)
+                .addLabeledComponent(new JBLabel("Ruby gems path: "), rubyGemsPathText, 1, false)
+                .addLabeledComponent(new JBLabel("JRuby path: "), jrubyPathText, 1, false)
                 .addComponentFillVertically(new JPanel(), 0)
                 .getPanel();
     }
@@ -117,6 +136,14 @@ public class TaitiSettingsComponent {
         trelloServerToken.setText(text);
     }
 
+    public int getMaxConcurrentTrelloRequests() {
+        return (Integer) maxConcurrentTrelloRequests.getValue();
+    }
+
+    public void setMaxConcurrentTrelloRequests(int value) {
+        maxConcurrentTrelloRequests.setValue(Math.max(1, Math.min(value, MAX_CONCURRENT_TRELLO_REQUESTS)));
+    }
+
     // Getters e Setters para campos existentes (permanecem os mesmos)
     @NotNull
     public String getGithubURLText() {
@@ -169,4 +196,30 @@ public class TaitiSettingsComponent {
     public void setLogicalDependenciesEnabled(boolean enabled) {
         logicalDependenciesCheckBox.setSelected(enabled);
     }
+
+    public boolean isLocalWorkingCopyAnalysis() {
+        return localWorkingCopyCheckBox.isSelected();
+    }
+
+    public void setLocalWorkingCopyAnalysis(boolean enabled) {
+        localWorkingCopyCheckBox.setSelected(enabled);
+    }
+
+    @NotNull
+    public String getRubyGemsPath() {
+        return rubyGemsPathText.getText();
+    }
+
+    public void setRubyGemsPath(@NotNull String text) {
+        rubyGemsPathText.setText(text);
+    }
+
+    @NotNull
+    public String getJRubyPath() {
+        return jrubyPathText.getText();
+    }
+
+    public void setJRubyPath(@NotNull String text) {
+        jrubyPathText.setText(text);
+    }
 }
\ No newline at end of file
@@ -66,12 +66,16 @@ public class TaitiSettingsConfigurable implements Configurable {
         component.setTrelloBoardUrlOrIdText(settings.getTrelloBoardUrlOrId());
         component.setTrelloApiKeyText(settings.getTrelloApiKey());
         component.setTrelloServerToken(settings.getTrelloServerToken());
+        component.setMaxConcurrentTrelloRequests(settings.getMaxConcurrentTrelloRequests());
         component.setGithubURLText(settings.getGithubURL());
         component.setScenariosFolder(settings.getScenariosFolder());
         component.setStepDefinitionsFolder(settings.getStepDefinitionsFolder());
         component.setUnityTestFolder(settings.getUnityTestFolder());
         component.setStructuralDependenciesEnabled(settings.isStructuralDependenciesEnabled());
         component.setLogicalDependenciesEnabled(settings.isLogicalDependenciesEnabled());
+        component.setLocalWorkingCopyAnalysis(settings.isLocalWorkingCopyAnalysis());
+        component.setRubyGemsPath(settings.getRubyGemsPath());
+        component.setJRubyPath(settings.getJRubyPath());
 
         JButton testButton = new JButton("Test Connection");
         testButton.setToolTipText("Test Trello connection with current credentials and Board URL/ID");
@@ -187,6 +191,7 @@ public class TaitiSettingsConfigurable implements Configurable {
         boolean modified = !component.getTrelloBoardUrlOrIdText().equals(settings.getTrelloBoardUrlOrId());
         modified |= !component.getTrelloApiKeyText().equals(settings.getTrelloApiKey());
         modified |= !component.getTrelloServerToken().equals(settings.getTrelloServerToken());
+        modified |= component.getMaxConcurrentTrelloRequests() != settings.getMaxConcurrentTrelloRequests();
 
         modified |= !component.getGithubURLText().equals(settings.getGithubURL());
         modified |= !component.getScenariosFolder().equals(settings.getScenariosFolder());
@@ -194,6 +199,9 @@ public class TaitiSettingsConfigurable implements Configurable {
         modified |= !component.getStepDefinitionsFolder().equals(settings.getStepDefinitionsFolder());
         modified |= component.isStructuralDependenciesEnabled() != settings.isStructuralDependenciesEnabled();
         modified |= component.isLogicalDependenciesEnabled() != settings.isLogicalDependenciesEnabled();
+        modified |= component.isLocalWorkingCopyAnalysis() != settings.isLocalWorkingCopyAnalysis();
+        modified |= !component.getRubyGemsPath().equals(settings.getRubyGemsPath());
+        modified |= !component.getJRubyPath().equals(settings.getJRubyPath());
         return modified;
     }
 
@@ -206,6 +214,7 @@ public class TaitiSettingsConfigurable implements Configurable {
         settings.setTrelloBoardUrlOrId(component.getTrelloBoardUrlOrIdText());
         settings.setTrelloApiKey(component.getTrelloApiKeyText());
         settings.setTrelloServerToken(component.getTrelloServerToken());
+        settings.setMaxConcurrentTrelloRequests(component.getMaxConcurrentTrelloRequests());
 
         settings.setGithubURL(component.getGithubURLText());
         settings.setScenariosFolder(component.getScenariosFolder());
@@ -213,6 +222,9 @@ public class TaitiSettingsConfigurable implements Configurable {
         settings.setStepDefinitionsFolder(component.getStepDefinitionsFolder());
         settings.setStructuralDependenciesEnabled(component.isStructuralDependenciesEnabled());
         settings.setLogicalDependenciesEnabled(component.isLogicalDependenciesEnabled());
+        settings.setLocalWorkingCopyAnalysis(component.isLocalWorkingCopyAnalysis());
+        settings.setRubyGemsPath(component.getRubyGemsPath());
+        settings.setJRubyPath(component.getJRubyPath());
 
         // Salvar credenciais sensíveis no PasswordSafe
         settings.storeCredentials(project);
@@ -235,12 +247,16 @@ public class TaitiSettingsConfigurable implements Configurable {
         component.setTrelloBoardUrlOrIdText(settings.getTrelloBoardUrlOrId());
         component.setTrelloApiKeyText(settings.getTrelloApiKey());
         component.setTrelloServerToken(settings.getTrelloServerToken());
+        component.setMaxConcurrentTrelloRequests(settings.getMaxConcurrentTrelloRequests());
         component.setGithubURLText(settings.getGithubURL());
         component.setStepDefinitionsFolder(settings.getStepDefinitionsFolder());
         component.setUnityTestFolder(settings.getUnityTestFolder());
         component.setScenariosFolder(settings.getScenariosFolder());
         component.setStructuralDependenciesEnabled(settings.isStructuralDependenciesEnabled());
         component.setLogicalDependenciesEnabled(settings.isLogicalDependenciesEnabled());
+        component.setLocalWorkingCopyAnalysis(settings.isLocalWorkingCopyAnalysis());
+        component.setRubyGemsPath(settings.getRubyGemsPath());
+        component.setJRubyPath(settings.getJRubyPath());
     }
 
     @Override
@@ -274,6 +290,16 @@ public class TaitiSettingsConfigurable implements Configurable {
             throw new ConfigurationException("The Unity Test Folder path field is empty.", "Cannot Save Settings");
         }
 
+        // the local analysis runs the Ruby analyzer from these directories
+        if (component.isLocalWorkingCopyAnalysis()) {
+            if (isBlank(component.getRubyGemsPath())) {
+                throw new ConfigurationException("The Ruby gems path field is empty.", "Cannot Save Settings");
+            }
+            if (isBlank(component.getJRubyPath())) {
+                throw new ConfigurationException("The JRuby path field is empty.", "Cannot Save Settings");
+            }
+        }
+
         // check if the Trello Board URL/ID is valid
         if (!isValidTrelloBoardUrlOrId(component.getTrelloBoardUrlOrIdText())) {
             throw new ConfigurationException(
@@ -1,5 +1,6 @@
 package br.edu.ufape.taiti.settings;
 
+import br.edu.ufape.taiti.service.TrelloService;
 import com.intellij.openapi.components.PersistentStateComponent;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
@@ -23,6 +24,8 @@ public class TaitiSettingsState implements PersistentStateComponent<TaitiSetting
     protected String trelloBoardUrlOrId = "";
     protected String trelloApiKey = "";
     protected String trelloServerToken = "";
+    // Requisições ao Trello em andamento ao mesmo tempo durante uma atualização
+    private int maxConcurrentTrelloRequests = TrelloService.DEFAULT_MAX_CONCURRENT_REQUESTS;
 
     // Existing settings
     protected String githubURL = "";
@@ -32,6 +35,11 @@ public class TaitiSettingsState implements PersistentStateComponent<TaitiSetting
     private boolean structuralDependenciesEnabled = false;
     private boolean logicalDependenciesEnabled = false;
 
+    // Análise da cópia de trabalho local (sem clonar a URL do GitHub)
+    private boolean localWorkingCopyAnalysis = false;
+    protected String rubyGemsPath = "";
+    protected String jrubyPath = "";
+
     @Override
     public @Nullable TaitiSettingsState getState() {
         return this;
@@ -68,6 +76,14 @@ public class TaitiSettingsState implements PersistentStateComponent<TaitiSetting
         this.trelloServerToken = trelloServerToken;
     }
 
+    public int getMaxConcurrentTrelloRequests() {
+        return Math.max(1, maxConcurrentTrelloRequests);
+    }
+
+    public void setMaxConcurrentTrelloRequests(int maxConcurrentTrelloRequests) {
+        this.maxConcurrentTrelloRequests = maxConcurrentTrelloRequests;
+    }
+
     // Getters and Setters for existing fields
     public boolean isStructuralDependenciesEnabled() {
         return structuralDependenciesEnabled;
@@ -85,6 +101,30 @@ public class TaitiSettingsState implements PersistentStateComponent<TaitiSetting
         this.logicalDependenciesEnabled = logicalDependenciesEnabled;
     }
 
+    public boolean isLocalWorkingCopyAnalysis() {
+        return localWorkingCopyAnalysis;
+    }
+
+    public void setLocalWorkingCopyAnalysis(boolean localWorkingCopyAnalysis) {
+        this.localWorkingCopyAnalysis = localWorkingCopyAnalysis;
+    }
+
+    public String getRubyGemsPath() {
+        return rubyGemsPath != null ? rubyGemsPath : "";
+    }
+
+    public void setRubyGemsPath(String rubyGemsPath) {
+        this.rubyGemsPath = rubyGemsPath;
+    }
+
+    public String getJRubyPath() {
+        return jrubyPath != null ? jrubyPath : "";
+    }
+
+    public void setJRubyPath(String jrubyPath) {
+        this.jrubyPath = jrubyPath;
+    }
+
     public String getScenariosFolder() {
         return scenariosFolder;
     }
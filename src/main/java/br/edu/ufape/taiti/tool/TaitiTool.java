@@ -1,7 +1,8 @@
 package br.edu.ufape.taiti.tool;
 
+import br.edu.ufape.taiti.service.AnalysisTarget;
+import br.edu.ufape.taiti.settings.TaitiSettingsState;
 import br.ufpe.cin.tan.analysis.itask.ITest;
-import br.ufpe.cin.tan.analysis.task.TodoTask;
 import br.ufpe.cin.tan.util.CsvUtil;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.project.ProjectUtil;
@@ -26,11 +27,10 @@ public class TaitiTool {
 
     // Esse método ainda possui erros ao executar TAITI.
     public void createTestI(@NotNull ArrayList<File> scenarioFiles) {
-        //Configurando as dependências
-        String language = "ruby";
-        String gemsPath = "C:"+ File.separator+"Ruby30-x64"+File.separator+"lib"+File.separator+"ruby"+
-                File.separator+"gems" + File.separator+"3.0.0"+File.separator+"gems";
-        String frameworkPath = "C:"+File.separator+"jruby-9.2.19.0";
+        //Configurando as dependências (caminhos do Ruby definidos nas configurações do TAITI)
+        TaitiSettingsState settings = TaitiSettingsState.getInstance(project);
+        AnalysisTarget.LocalWorkingCopy workingCopy = new AnalysisTarget.LocalWorkingCopy(getProjectPath(),
+                settings.getRubyGemsPath(), settings.getJRubyPath());
 
         for (File f : scenarioFiles) {
             System.out.println("TaskID: " + f.getName().replaceAll("[\\D]", ""));
@@ -39,15 +39,13 @@ public class TaitiTool {
         for (File f : scenarioFiles) {
             ArrayList<LinkedHashMap<String, Serializable>> tests = prepareScenariosFromFile(readTaitiFile(f));
 
-            TodoTask task;
             ITest itest;
             try {
                 // o nome do arquivo é no estilo file-123456.csv, onde o 123456 é o id da tarefa
                 int taskID = Integer.parseInt(f.getName().replaceAll("[\\D]", ""));
-                String projectPath = getProjectPath();
+                String projectPath = workingCopy.getProjectPath();
 
-                task = new TodoTask(language, gemsPath, frameworkPath, projectPath, taskID, tests);
-                itest = task.computeTestBasedInterface();
+                itest = workingCopy.createTodoTask(taskID, tests).computeTestBasedInterface();
 
                 /* Exibindo o conjunto de arquivos no console */
                 Set<String> files = itest.getFiles();
@@ -150,6 +148,44 @@ public class TaitiTool {
         return contentFile;
     }
 
+    /**
+     * Lê um arquivo de cenários TAITI (linhas "path;[1, 2, 3]") diretamente de um Reader,
+     * sem passar por arquivo temporário. Linhas sem números válidos são ignoradas.
+     *
+     * @param reader Conteúdo do arquivo, por exemplo o corpo de um download em andamento.
+     * @return Lista de cenários no formato usado por TodoTask ("path" e "lines").
+     */
+    public static ArrayList<LinkedHashMap<String, Serializable>> parseScenarios(BufferedReader reader) throws IOException {
+        ArrayList<LinkedHashMap<String, Serializable>> tests = new ArrayList<>();
+        String l;
+        while ((l = reader.readLine()) != null) {
+            String[] line = l.split(";");
+            if (line.length < 2 || (line[0].equals("path") && line[1].equals("lines"))) {
+                continue;
+            }
+
+            ArrayList<Integer> numberLines = new ArrayList<>();
+            for (String number : line[1].replaceAll("[\\[\\]]", "").split(",")) {
+                String trimmed = number.strip();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                try {
+                    numberLines.add(Integer.parseInt(trimmed));
+                } catch (NumberFormatException e) {
+                    System.err.println("Warning: Could not parse line number '" + trimmed + "' for file " + line[0]);
+                }
+            }
+            if (!numberLines.isEmpty()) {
+                LinkedHashMap<String, Serializable> map = new LinkedHashMap<>(2);
+                map.put("path", line[0]);
+                map.put("lines", numberLines);
+                tests.add(map);
+            }
+        }
+        return tests;
+    }
+
     private ArrayList<LinkedHashMap<String, Serializable>> prepareScenariosFromFile(ArrayList<String[]> contentFile) {
         ArrayList<LinkedHashMap<String, Serializable>> tests = new ArrayList<>();
 